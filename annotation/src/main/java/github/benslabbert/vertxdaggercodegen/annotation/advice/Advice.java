@@ -5,5 +5,17 @@ public interface Advice {
 
   void before(Class<?> clazz, String methodName, Object... args);
 
+  /**
+   * called after the advised method returned <br>
+   * for io.vertx.core.Future and java.util.concurrent.CompletionStage results this is called when
+   * the result completes successfully, with the completed value
+   */
   void after(Class<?> clazz, String methodName, Object result);
+
+  /**
+   * called instead of after when the advised method throws, the exception is rethrown afterwards
+   * <br>
+   * also called when a returned io.vertx.core.Future or java.util.concurrent.CompletionStage fails
+   */
+  default void onError(Class<?> clazz, String methodName, Throwable throwable) {}
 }
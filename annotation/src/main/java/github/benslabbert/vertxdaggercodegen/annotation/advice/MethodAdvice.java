@@ -0,0 +1,91 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.annotation.advice;
+
+/**
+ * advice contract for advisors on hot methods <br>
+ * the generated code calls the hook matching the arity of the advised method with its method id
+ * constant, primitive single arguments and results are not boxed and no varargs array is
+ * allocated <br>
+ * every hook defaults to the less specific one and finally to the {@link Advice} methods, an
+ * advisor only overrides the hooks it needs allocation free <br>
+ * per invocation state such as a start time must not be kept in fields, the value returned by
+ * {@link #enter(MethodId)} is kept in a local of the generated method and passed to {@link
+ * #exit(MethodId, long)}, so a scoped advisor can serve concurrent invocations
+ */
+public interface MethodAdvice extends Advice {
+
+  Object[] NO_ARGS = new Object[0];
+
+  /** called before the before hook, the result is passed to exit */
+  default long enter(MethodId method) {
+    return 0L;
+  }
+
+  /** called after the after or onError hook with the value returned by enter */
+  default void exit(MethodId method, long state) {}
+
+  default void before(MethodId method, Object... args) {
+    before(method.clazz(), method.name(), args);
+  }
+
+  default void before(MethodId method) {
+    before(method, NO_ARGS);
+  }
+
+  default void before(MethodId method, Object arg0) {
+    before(method, new Object[] {arg0});
+  }
+
+  default void before(MethodId method, Object arg0, Object arg1) {
+    before(method, new Object[] {arg0, arg1});
+  }
+
+  default void before(MethodId method, Object arg0, Object arg1, Object arg2) {
+    before(method, new Object[] {arg0, arg1, arg2});
+  }
+
+  default void before(MethodId method, int arg0) {
+    before(method, (Object) arg0);
+  }
+
+  default void before(MethodId method, long arg0) {
+    before(method, (Object) arg0);
+  }
+
+  default void before(MethodId method, double arg0) {
+    before(method, (Object) arg0);
+  }
+
+  default void before(MethodId method, boolean arg0) {
+    before(method, (Object) arg0);
+  }
+
+  default void after(MethodId method, Object result) {
+    after(method.clazz(), method.name(), result);
+  }
+
+  /** called after a void method */
+  default void after(MethodId method) {
+    after(method, (Object) null);
+  }
+
+  default void after(MethodId method, int result) {
+    after(method, (Object) result);
+  }
+
+  default void after(MethodId method, long result) {
+    after(method, (Object) result);
+  }
+
+  default void after(MethodId method, double result) {
+    after(method, (Object) result);
+  }
+
+  default void after(MethodId method, boolean result) {
+    after(method, (Object) result);
+  }
+
+  default void onError(MethodId method, Throwable throwable) {
+    onError(method.clazz(), method.name(), throwable);
+  }
+}
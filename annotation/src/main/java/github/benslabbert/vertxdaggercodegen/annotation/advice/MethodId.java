@@ -0,0 +1,10 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.annotation.advice;
+
+/**
+ * identifies an advised method, generated once per method as a constant in the *_Advised class
+ * <br>
+ * id is the position of the method in the advised class, so overloaded methods with the same name
+ * have different ids
+ */
+public record MethodId(Class<?> clazz, String name, int id) {}
@@ -0,0 +1,21 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.annotation.advice;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * records the latency of the annotated method in a per method histogram <br>
+ * the method must be on an {@link Advised} class and this annotation must be listed in the
+ * processCustom option <br>
+ * for io.vertx.core.Future and java.util.concurrent.CompletionStage results the latency is measured
+ * until the result completes
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Timed {
+
+  String ADVISOR = "github.benslabbert.vertxdaggercodegen.commons.advice.LatencyAdvice";
+}
@@ -6,6 +6,64 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * generates an event bus client proxy and proxy handler for the annotated interface <br>
+ * if the interface name is UserService, the generated classes will be: <br>
+ * UserServiceVertxEBClientProxy and UserServiceVertxEBProxyHandler <br>
+ * every method is assigned an action id derived from its name and parameter type, the client
+ * sends it in the actionId header and the handler dispatches on it, the ids do not depend on the
+ * declaration order and a handler which does not know an id fails the call <br>
+ * the action header with the method name is still sent and used when no actionId is present <br>
+ * methods return io.vertx.core.Future or io.vertx.core.streams.ReadStream <br>
+ * the client precomputes the DeliveryOptions of every method from the constructor options, they
+ * are only shared between calls when the constructor options use TracingPolicy.IGNORE since a
+ * tracer may write to the headers, otherwise, including when no options are given, every call
+ * copies them <br>
+ * each method has an overload taking per call DeliveryOptions, only their send timeout and
+ * tracing policy are applied on top of the constructor options <br>
+ * a ReadStream is delivered one item per message over a temporary address, the handler only
+ * sends as many items as the client has granted credits for so a slow or paused reader bounds
+ * the items in flight, a stream which is not granted credits for the handler timeout is closed
+ * and the client fails with a ReplyFailure.TIMEOUT, as it does when it receives nothing from the
+ * handler for five minutes <br>
+ * stream items are always written with toJson/fromJson and streams are never batched <br>
+ * when the handler is registered with register or registerLocal on a context of the same Vertx
+ * instance, a client created without DeliveryOptions calls the service directly on that context
+ * instead of sending a message, the handlers registered for an address are called in turn <br>
+ * records with only primitive, boxed primitive or String components are passed by reference and
+ * every other request and response is copied with toJson/fromJson, interceptors and the send
+ * timeout do not apply to these calls, streams, calls with per call options and clients created
+ * with DeliveryOptions always use the event bus <br>
+ * client and handler must be generated from the same version of the interface
+ */
 @Target({ElementType.TYPE})
 @Retention(RetentionPolicy.SOURCE)
-public @interface GenerateProxies {}
+public @interface GenerateProxies {
+
+  /**
+   * when true, the generated client and handler send request and response types as message bodies
+   * using a generated io.vertx.core.eventbus.MessageCodec instead of wrapping them in a JsonObject
+   * <br>
+   * records with only primitive, boxed primitive or String components are passed by reference on
+   * local delivery and written in a compact binary form on clustered delivery <br>
+   * types which are not records, or have other components, are copied with toJson/fromJson on
+   * local delivery and written to the wire using the same methods <br>
+   * if the interface name is UserService, the generated class will be: UserServiceVertxEBCodecs
+   * <br>
+   * both sides of the event bus must be generated with the same value
+   */
+  boolean codec() default false;
+
+  /**
+   * when true, a batching client is generated as well which queues calls and sends them to the
+   * handler as a single event bus message <br>
+   * a batch is sent when it reaches maxBatchSize or when the window started by its first call
+   * ends, each call still completes with its own result or failure <br>
+   * batched requests and responses are always written with toJson/fromJson, also when codec is
+   * enabled <br>
+   * if the interface name is UserService, the generated class will be:
+   * UserServiceVertxEBBatchingClientProxy <br>
+   * the handler must be generated with batch enabled to accept batches
+   */
+  boolean batch() default false;
+}
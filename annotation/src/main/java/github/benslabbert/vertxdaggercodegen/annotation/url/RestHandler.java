@@ -32,6 +32,11 @@ public @interface RestHandler {
    * {double:paramName} <br>
    * {ts:paramName} - 1708267289273 (unix millis) for example, will be converted to a
    * java.time.Instant <br>
+   * {ts_s:paramName} - 1708267289 (epoch seconds) for example, will be converted to a
+   * java.time.Instant <br>
+   * {ts_iso:paramName} - 2024-02-18T14:41:29.273Z or 2024-02-18T16:41:29.273+02:00 for example,
+   * will be converted to a java.time.Instant <br>
+   * {ts_long:paramName} - unix millis kept as a primitive long <br>
    * default values can be specified as follows: <br>
    * {int:paramName=10} <br>
    * {long:paramName=10L} <br>
@@ -40,6 +45,32 @@ public @interface RestHandler {
    * {float:paramName=10.0F} <br>
    * {double:paramName=10.0} <br>
    * {ts:paramName=1708267289273} <br>
+   * {ts_s:paramName=1708267289} <br>
+   * {ts_iso:paramName=2024-02-18T14:41:29Z} <br>
+   * {ts_long:paramName=1708267289273} <br>
+   * query parameters are read from the raw query string in a single pass, only the declared names
+   * are looked up and ctx.queryParams() is never decoded <br>
+   * when the restRouter option is set to a canonical class name, a single router for all handlers
+   * is generated with that name, it is an io.vertx.core.Handler of io.vertx.ext.web.RoutingContext
+   * to be mounted with router.route().handler(...) and calls ctx.next() when no handler matches
+   * <br>
+   * routed handlers must be public and accept (RoutingContext) or (RoutingContext,
+   * MethodNameParams), path parameters are parsed while matching and are only passed to handlers
+   * accepting the record <br>
+   * the router only matches a path segment to a parameter it parses as, a value of the wrong type
+   * tries the other routes and ends in ctx.next(), usually a 404, where an unrouted handler fails
+   * while parsing <br>
+   * routed boolean parameters only match true or false ignoring case instead of reading any other
+   * value as false, and empty segments match no parameter, as with vertx-web path parameters <br>
    */
   String path();
+
+  /**
+   * when true the generated params type is a view over the io.vertx.ext.web.RoutingContext with
+   * the same accessors as the record <br>
+   * each parameter is parsed on first access and memoized, handlers that only read some parameters
+   * or reject the request early do not parse the rest <br>
+   * the view must not be used outside the request it was created for
+   */
+  boolean lazy() default false;
 }
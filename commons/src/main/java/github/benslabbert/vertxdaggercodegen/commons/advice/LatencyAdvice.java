@@ -0,0 +1,91 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.advice;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodAdvice;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * advisor behind {@link github.benslabbert.vertxdaggercodegen.annotation.advice.Timed} <br>
+ * a stateless singleton, the start time is returned by enter and kept by the generated method <br>
+ * every hook is overridden so arguments and results are never boxed
+ */
+@Singleton
+public class LatencyAdvice implements MethodAdvice {
+
+  private final LatencyRecorder recorder;
+
+  @Inject
+  public LatencyAdvice(LatencyRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  // called by the generated code, the Timed annotation has no parameters
+  public void customize() {}
+
+  @Override
+  public long enter(MethodId method) {
+    return System.nanoTime();
+  }
+
+  @Override
+  public void exit(MethodId method, long state) {
+    recorder.record(method, System.nanoTime() - state);
+  }
+
+  @Override
+  public void before(MethodId method, Object... args) {}
+
+  @Override
+  public void before(MethodId method) {}
+
+  @Override
+  public void before(MethodId method, Object arg0) {}
+
+  @Override
+  public void before(MethodId method, Object arg0, Object arg1) {}
+
+  @Override
+  public void before(MethodId method, Object arg0, Object arg1, Object arg2) {}
+
+  @Override
+  public void before(MethodId method, int arg0) {}
+
+  @Override
+  public void before(MethodId method, long arg0) {}
+
+  @Override
+  public void before(MethodId method, double arg0) {}
+
+  @Override
+  public void before(MethodId method, boolean arg0) {}
+
+  @Override
+  public void after(MethodId method, Object result) {}
+
+  @Override
+  public void after(MethodId method) {}
+
+  @Override
+  public void after(MethodId method, int result) {}
+
+  @Override
+  public void after(MethodId method, long result) {}
+
+  @Override
+  public void after(MethodId method, double result) {}
+
+  @Override
+  public void after(MethodId method, boolean result) {}
+
+  @Override
+  public void onError(MethodId method, Throwable throwable) {}
+
+  // the generated code always calls the MethodId hooks
+  @Override
+  public void before(Class<?> clazz, String methodName, Object... args) {}
+
+  @Override
+  public void after(Class<?> clazz, String methodName, Object result) {}
+}
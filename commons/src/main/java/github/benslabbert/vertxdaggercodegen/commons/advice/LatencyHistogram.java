@@ -0,0 +1,78 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.advice;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * log linear histogram of latencies in nanoseconds, values are kept with 4 bits of sub bucket
+ * precision (at most 1/16 relative error) <br>
+ * counts are striped by thread so event loop threads do not contend on the same buckets, stripes
+ * are allocated on first use
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private static final int STRIPES =
+      Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+  private final MethodId method;
+  private final AtomicReferenceArray<AtomicLongArray> stripes =
+      new AtomicReferenceArray<>(STRIPES);
+
+  LatencyHistogram(MethodId method) {
+    this.method = method;
+  }
+
+  void record(long nanos) {
+    int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+    AtomicLongArray counts = stripes.get(stripe);
+    if (counts == null) {
+      counts = new AtomicLongArray(BUCKETS);
+      if (!stripes.compareAndSet(stripe, null, counts)) {
+        counts = stripes.get(stripe);
+      }
+    }
+    counts.getAndIncrement(bucket(nanos));
+  }
+
+  LatencySnapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < STRIPES; i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe == null) {
+        continue;
+      }
+
+      for (int b = 0; b < BUCKETS; b++) {
+        counts[b] += stripe.get(b);
+      }
+    }
+    return new LatencySnapshot(method, counts);
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return value < 0L ? 0 : (int) value;
+    }
+
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** the largest value recorded in the bucket */
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
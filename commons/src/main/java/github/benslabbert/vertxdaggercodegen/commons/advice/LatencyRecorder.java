@@ -0,0 +1,86 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.advice;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * holds the latency histograms recorded by {@link LatencyAdvice} <br>
+ * histograms are found by the advised class and the method id generated for the advised method,
+ * recording does not hash the method name or take a lock
+ */
+@Singleton
+public class LatencyRecorder {
+
+  private final ClassValue<Histograms> histograms =
+      new ClassValue<>() {
+        @Override
+        protected Histograms computeValue(Class<?> type) {
+          return new Histograms();
+        }
+      };
+
+  private final List<LatencyHistogram> all = new CopyOnWriteArrayList<>();
+
+  @Inject
+  public LatencyRecorder() {}
+
+  public void record(MethodId method, long nanos) {
+    histograms.get(method.clazz()).get(method).record(nanos);
+  }
+
+  public LatencySnapshot snapshot(MethodId method) {
+    return histograms.get(method.clazz()).get(method).snapshot();
+  }
+
+  /** snapshots of every method recorded so far */
+  public List<LatencySnapshot> snapshots() {
+    List<LatencySnapshot> snapshots = new ArrayList<>(all.size());
+    for (LatencyHistogram histogram : all) {
+      snapshots.add(histogram.snapshot());
+    }
+    return snapshots;
+  }
+
+  private final class Histograms {
+
+    private volatile AtomicReferenceArray<LatencyHistogram> byId = new AtomicReferenceArray<>(0);
+
+    LatencyHistogram get(MethodId method) {
+      AtomicReferenceArray<LatencyHistogram> current = byId;
+      if (method.id() < current.length()) {
+        LatencyHistogram histogram = current.get(method.id());
+        if (histogram != null) {
+          return histogram;
+        }
+      }
+      return create(method);
+    }
+
+    private synchronized LatencyHistogram create(MethodId method) {
+      AtomicReferenceArray<LatencyHistogram> current = byId;
+      if (method.id() >= current.length()) {
+        AtomicReferenceArray<LatencyHistogram> grown =
+            new AtomicReferenceArray<>(method.id() + 1);
+        for (int i = 0; i < current.length(); i++) {
+          grown.set(i, current.get(i));
+        }
+        current = grown;
+        byId = grown;
+      }
+
+      LatencyHistogram histogram = current.get(method.id());
+      if (histogram == null) {
+        histogram = new LatencyHistogram(method);
+        current.set(method.id(), histogram);
+        all.add(histogram);
+      }
+      return histogram;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.advice;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
+
+/**
+ * point in time copy of the latencies recorded for an advised method <br>
+ * values are in nanoseconds and are the highest value of the histogram bucket they fall in
+ */
+public final class LatencySnapshot {
+
+  private final MethodId method;
+  private final long[] counts;
+  private final long count;
+
+  LatencySnapshot(MethodId method, long[] counts) {
+    this.method = method;
+    this.counts = counts;
+
+    long total = 0L;
+    for (long c : counts) {
+      total += c;
+    }
+    this.count = total;
+  }
+
+  public MethodId method() {
+    return method;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  /** percentile between 0 and 100, 0 when nothing was recorded */
+  public long valueAtPercentile(double percentile) {
+    if (percentile < 0.0 || percentile > 100.0) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+
+    if (count == 0L) {
+      return 0L;
+    }
+
+    long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+    long seen = 0L;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return LatencyHistogram.highestValue(i);
+      }
+    }
+    return max();
+  }
+
+  public long p50() {
+    return valueAtPercentile(50.0);
+  }
+
+  public long p99() {
+    return valueAtPercentile(99.0);
+  }
+
+  public long p999() {
+    return valueAtPercentile(99.9);
+  }
+
+  public long max() {
+    for (int i = counts.length - 1; i >= 0; i--) {
+      if (counts[i] != 0L) {
+        return LatencyHistogram.highestValue(i);
+      }
+    }
+    return 0L;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencySnapshot{"
+        + "method="
+        + method.clazz().getName()
+        + "."
+        + method.name()
+        + ", count="
+        + count
+        + ", p50="
+        + p50()
+        + ", p99="
+        + p99()
+        + ", p999="
+        + p999()
+        + ", max="
+        + max()
+        + '}';
+  }
+}
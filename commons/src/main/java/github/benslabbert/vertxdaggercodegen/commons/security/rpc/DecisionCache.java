@@ -0,0 +1,397 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.security.rpc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * caches allow and deny decisions per principal and method ordinal of a secured proxy in front of
+ * the application's role and permission resolution <br>
+ * the decisions of a principal are kept together as a bit set indexed by method ordinal, so
+ * invalidating a principal whose roles changed drops all of its decisions at once <br>
+ * the number of principals is bounded, when full a new principal only replaces the least recently
+ * used one if it has been seen more often, frequencies are estimated with a count min sketch that
+ * is halved periodically so old popularity fades <br>
+ * the decisions of a principal expire together ttl after the first one was cached, so a decision
+ * cached later is kept for less than ttl but never longer <br>
+ * a decision resolved while its principal was invalidated is returned but not cached <br>
+ * a hit takes no lock, it is read from a concurrent map and its principal is recorded in a lossy
+ * buffer striped by thread, the buffers are drained into the recency order and the sketch under
+ * the lock by the next miss or when a buffer is full, a hit is dropped when its buffer is full and
+ * the lock is taken
+ *
+ * @param <P> the principal, must implement equals and hashCode
+ */
+public final class DecisionCache<P> {
+
+  /** the application's decision for a principal, called without holding a lock */
+  @FunctionalInterface
+  public interface Resolver<P> {
+
+    boolean isAllowed(P principal, int method);
+  }
+
+  private final int maximumSize;
+  private final long ttlNanos;
+  private final Resolver<P> resolver;
+  private final LongSupplier nanoTime;
+  private final ConcurrentHashMap<P, Decisions> decisions = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<ReadBuffer<P>> readBuffers =
+      new AtomicReferenceArray<>(ReadBuffer.STRIPES);
+
+  // guards the fields below and every write to decisions
+  private final ReentrantLock lock = new ReentrantLock();
+  private final FrequencySketch sketch;
+  // access ordered, the eldest entry is the least recently used principal
+  private final LinkedHashMap<P, Decisions> accessOrder = new LinkedHashMap<>(16, 0.75F, true);
+  // the principals being resolved, a resolution overlapping an invalidation is not cached
+  private final Map<P, Resolving> resolving = new HashMap<>();
+  // incremented by every invalidateAll
+  private long invalidations;
+
+  /**
+   * @param ttlMillis how long the decisions of a principal are kept after the first one was cached
+   */
+  public DecisionCache(int maximumSize, long ttlMillis, Resolver<P> resolver) {
+    this(maximumSize, ttlMillis, resolver, System::nanoTime);
+  }
+
+  /**
+   * @param ttlMillis how long the decisions of a principal are kept after the first one was cached
+   * @param nanoTime the clock, must return System.nanoTime() values
+   */
+  public DecisionCache(
+      int maximumSize, long ttlMillis, Resolver<P> resolver, LongSupplier nanoTime) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be greater than 0");
+    }
+    if (ttlMillis < 1L) {
+      throw new IllegalArgumentException("ttlMillis must be greater than 0");
+    }
+
+    this.maximumSize = maximumSize;
+    this.ttlNanos = ttlMillis * 1_000_000L;
+    this.resolver = resolver;
+    this.nanoTime = nanoTime;
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  /** the cached decision, resolved and cached on a miss */
+  public boolean isAllowed(P principal, int method) {
+    if (method < 0) {
+      throw new IllegalArgumentException("method must not be negative: " + method);
+    }
+
+    long now = nanoTime.getAsLong();
+    Decisions cached = decisions.get(principal);
+    if (null != cached && !isExpired(cached, now) && cached.isKnown(method)) {
+      afterHit(principal);
+      return cached.isAllowed(method);
+    }
+
+    Resolving inFlight;
+    long generation;
+    long allGeneration;
+
+    lock.lock();
+    try {
+      drainReadBuffers();
+      record(principal);
+      cached = decisions.get(principal);
+      if (null != cached && isExpired(cached, now)) {
+        remove(principal);
+      } else if (null != cached && cached.isKnown(method)) {
+        return cached.isAllowed(method);
+      }
+      inFlight = resolving.computeIfAbsent(principal, p -> new Resolving());
+      inFlight.count++;
+      generation = inFlight.invalidations;
+      allGeneration = invalidations;
+    } finally {
+      lock.unlock();
+    }
+
+    boolean allowed;
+    try {
+      allowed = resolver.isAllowed(principal, method);
+    } catch (RuntimeException | Error e) {
+      lock.lock();
+      try {
+        release(principal, inFlight);
+      } finally {
+        lock.unlock();
+      }
+      throw e;
+    }
+
+    lock.lock();
+    try {
+      release(principal, inFlight);
+      if (generation != inFlight.invalidations || allGeneration != invalidations) {
+        return allowed;
+      }
+
+      cached = decisions.get(principal);
+      if (null == cached || isExpired(cached, now)) {
+        if (null == cached && !admit(principal, now)) {
+          return allowed;
+        }
+        cached = new Decisions(now);
+        decisions.put(principal, cached);
+        accessOrder.put(principal, cached);
+      }
+      cached.set(method, allowed);
+    } finally {
+      lock.unlock();
+    }
+    return allowed;
+  }
+
+  /** drops every decision of the principal, call when its roles or permissions change */
+  public void invalidate(P principal) {
+    lock.lock();
+    try {
+      Resolving inFlight = resolving.get(principal);
+      if (null != inFlight) {
+        inFlight.invalidations++;
+      }
+      remove(principal);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidateAll() {
+    lock.lock();
+    try {
+      invalidations++;
+      decisions.clear();
+      accessOrder.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** number of principals with cached decisions, including expired ones not yet dropped */
+  public int size() {
+    return decisions.size();
+  }
+
+  /** buffers the hit, drains the buffers when full and the lock is free */
+  private void afterHit(P principal) {
+    int stripe = (int) Thread.currentThread().threadId() & (ReadBuffer.STRIPES - 1);
+    ReadBuffer<P> buffer = readBuffers.get(stripe);
+    if (null == buffer) {
+      buffer = new ReadBuffer<>();
+      if (!readBuffers.compareAndSet(stripe, null, buffer)) {
+        buffer = readBuffers.get(stripe);
+      }
+    }
+
+    if (!buffer.offer(principal) && lock.tryLock()) {
+      try {
+        drainReadBuffers();
+        record(principal);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** called with the lock held */
+  private void drainReadBuffers() {
+    for (int i = 0; i < ReadBuffer.STRIPES; i++) {
+      ReadBuffer<P> buffer = readBuffers.get(i);
+      if (null != buffer) {
+        buffer.drain(this);
+      }
+    }
+  }
+
+  /** called with the lock held, marks the principal as most recently used and counts it */
+  private void record(P principal) {
+    sketch.increment(principal.hashCode());
+    accessOrder.get(principal);
+  }
+
+  private void remove(P principal) {
+    decisions.remove(principal);
+    accessOrder.remove(principal);
+  }
+
+  private void release(P principal, Resolving inFlight) {
+    if (0 == --inFlight.count) {
+      resolving.remove(principal);
+    }
+  }
+
+  private boolean isExpired(Decisions cached, long now) {
+    return now - cached.createdNanos >= ttlNanos;
+  }
+
+  /** true when there is room for the principal, evicting the least recently used if needed */
+  private boolean admit(P principal, long now) {
+    if (accessOrder.size() < maximumSize) {
+      return true;
+    }
+
+    Iterator<Map.Entry<P, Decisions>> iterator = accessOrder.entrySet().iterator();
+    Map.Entry<P, Decisions> eldest = iterator.next();
+    if (!isExpired(eldest.getValue(), now)
+        && sketch.frequency(principal.hashCode()) <= sketch.frequency(eldest.getKey().hashCode())) {
+      return false;
+    }
+
+    iterator.remove();
+    decisions.remove(eldest.getKey());
+    return true;
+  }
+
+  /** the resolutions in flight for a principal and the invalidations that overlapped them */
+  private static final class Resolving {
+
+    private int count;
+    private long invalidations;
+  }
+
+  /**
+   * the known and allowed bits of a principal, interleaved per word of 64 method ordinals <br>
+   * set under the lock by replacing the array, so a hit reads a consistent copy without one
+   */
+  private static final class Decisions {
+
+    private final long createdNanos;
+    private volatile long[] words = new long[2];
+
+    private Decisions(long createdNanos) {
+      this.createdNanos = createdNanos;
+    }
+
+    boolean isKnown(int method) {
+      int word = (method >>> 6) * 2;
+      long[] current = words;
+      return word < current.length && 0L != (current[word] & (1L << method));
+    }
+
+    /** only valid after {@link #isKnown(int)} */
+    boolean isAllowed(int method) {
+      return 0L != (words[(method >>> 6) * 2 + 1] & (1L << method));
+    }
+
+    void set(int method, boolean isAllowed) {
+      int word = (method >>> 6) * 2;
+      long[] copy = Arrays.copyOf(words, Math.max(words.length, word + 2));
+      copy[word] |= 1L << method;
+      if (isAllowed) {
+        copy[word + 1] |= 1L << method;
+      } else {
+        copy[word + 1] &= ~(1L << method);
+      }
+      words = copy;
+    }
+  }
+
+  /**
+   * bounded ring of principals whose decisions were hit, written without a lock and drained under
+   * the lock, a principal is dropped when another thread claimed the same slot first
+   */
+  private static final class ReadBuffer<P> {
+
+    static final int STRIPES =
+        Math.min(
+            64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+    private static final int SIZE = 32;
+
+    private final AtomicReferenceArray<P> slots = new AtomicReferenceArray<>(SIZE);
+    private final AtomicLong tail = new AtomicLong();
+    // only written by the drain
+    private volatile long head;
+
+    /** false when the ring is full */
+    boolean offer(P principal) {
+      long t = tail.get();
+      if (t - head >= SIZE) {
+        return false;
+      }
+      if (tail.compareAndSet(t, t + 1)) {
+        slots.lazySet((int) (t & (SIZE - 1)), principal);
+      }
+      return true;
+    }
+
+    /** called with the lock held, stops at a slot claimed but not yet written */
+    void drain(DecisionCache<P> cache) {
+      long h = head;
+      long t = tail.get();
+      for (; h < t; h++) {
+        int i = (int) (h & (SIZE - 1));
+        P principal = slots.get(i);
+        if (null == principal) {
+          break;
+        }
+        slots.lazySet(i, null);
+        cache.record(principal);
+      }
+      head = h;
+    }
+  }
+
+  /** count min sketch of 4 bit counters over 4 rows, halved after 10 samples per counter */
+  private static final class FrequencySketch {
+
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+    private static final int MAX = 15;
+
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int samples;
+
+    private FrequencySketch(int maximumSize) {
+      int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+      this.counters = new byte[width * SEEDS.length];
+      this.mask = width - 1;
+      this.sampleSize = 10 * width;
+    }
+
+    void increment(int hashCode) {
+      boolean added = false;
+      for (int row = 0; row < SEEDS.length; row++) {
+        int i = index(hashCode, row);
+        if (counters[i] < MAX) {
+          counters[i]++;
+          added = true;
+        }
+      }
+
+      if (added && ++samples >= sampleSize) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] = (byte) (counters[i] >>> 1);
+        }
+        samples /= 2;
+      }
+    }
+
+    int frequency(int hashCode) {
+      int frequency = MAX;
+      for (int row = 0; row < SEEDS.length; row++) {
+        frequency = Math.min(frequency, counters[index(hashCode, row)]);
+      }
+      return frequency;
+    }
+
+    private int index(int hashCode, int row) {
+      int h = hashCode * SEEDS[row];
+      h ^= h >>> 16;
+      return row * (mask + 1) + (h & mask);
+    }
+  }
+}
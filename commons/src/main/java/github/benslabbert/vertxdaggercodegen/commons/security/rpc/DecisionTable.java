@@ -0,0 +1,112 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.security.rpc;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * immutable authorization decisions of a secured proxy, generated as {@code
+ * X_SecuredActions.DECISIONS} <br>
+ * every role, permission and wildcard permission required by a method is interned to a bit, roles
+ * first, then permissions, then wildcards <br>
+ * the requirement of a method is a bit set indexed by method ordinal, a principal is granted a bit
+ * set once with {@link #grant(Collection, Collection, Collection)} and every check is a word wise
+ * AND <br>
+ * a secured action requires its role and all of its permissions with the group as resource
+ */
+public final class DecisionTable {
+
+  private final List<Role> roles;
+  private final List<Permission> permissions;
+  private final List<Wildcard> wildcards;
+  private final long[][] requirements;
+
+  public DecisionTable(
+      List<Role> roles,
+      List<Permission> permissions,
+      List<Wildcard> wildcards,
+      long[][] requirements) {
+    this.roles = List.copyOf(roles);
+    this.permissions = List.copyOf(permissions);
+    this.wildcards = List.copyOf(wildcards);
+    this.requirements = requirements.clone();
+    int words = words(this.roles.size() + this.permissions.size() + this.wildcards.size());
+    for (int i = 0; i < this.requirements.length; i++) {
+      if (this.requirements[i].length != words) {
+        throw new IllegalArgumentException("requirement " + i + " must have " + words + " words");
+      }
+      this.requirements[i] = this.requirements[i].clone();
+    }
+  }
+
+  /** number of secured methods */
+  public int size() {
+    return requirements.length;
+  }
+
+  /** a copy of the bits required by the method */
+  public long[] requires(int method) {
+    return requirements[method].clone();
+  }
+
+  /**
+   * the bits granted to a principal, compute once per principal and keep it with the principal
+   *
+   * @param roles the roles held by the principal
+   * @param permissions the permissions held by the principal
+   * @param wildcardPermissions the wildcard permissions held by the principal such as {@code
+   *     document:read,write:*}, compiled into a {@link WildcardMatcher} and matched against every
+   *     required wildcard permission here and never during a check
+   */
+  public long[] grant(
+      Collection<Role> roles,
+      Collection<Permission> permissions,
+      Collection<Wildcard> wildcardPermissions) {
+    long[] granted = new long[words(bits())];
+
+    for (int i = 0; i < this.roles.size(); i++) {
+      if (roles.contains(this.roles.get(i))) {
+        set(granted, i);
+      }
+    }
+
+    int offset = this.roles.size();
+    for (int i = 0; i < this.permissions.size(); i++) {
+      if (permissions.contains(this.permissions.get(i))) {
+        set(granted, offset + i);
+      }
+    }
+
+    offset += this.permissions.size();
+    WildcardMatcher matcher = WildcardMatcher.compile(wildcardPermissions);
+    for (int i = 0; i < wildcards.size(); i++) {
+      if (matcher.implies(wildcards.get(i))) {
+        set(granted, offset + i);
+      }
+    }
+    return granted;
+  }
+
+  /** true when granted holds every bit required by the method */
+  public boolean isAllowed(int method, long[] granted) {
+    long[] required = requirements[method];
+    for (int i = 0; i < required.length; i++) {
+      if ((required[i] & granted[i]) != required[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int bits() {
+    return roles.size() + permissions.size() + wildcards.size();
+  }
+
+  private static void set(long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  private static int words(int bits) {
+    return Math.max(1, (bits + 63) >>> 6);
+  }
+}
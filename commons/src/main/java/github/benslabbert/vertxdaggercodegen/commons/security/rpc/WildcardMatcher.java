@@ -0,0 +1,277 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.security.rpc;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the wildcard permissions granted to a principal compiled once into a segment trie per resource
+ * <br>
+ * permissions are in the shiro style, parts are separated by ':' and sub parts by ',' <br>
+ * a part of '*' matches any part, a granted permission with fewer parts implies every permission
+ * it is a prefix of, missing parts of the required permission only match '*' <br>
+ * a check walks the required permission in place one part at a time and does not allocate, the
+ * children of a node are found by hashing the part without creating a substring <br>
+ * instances are immutable and safe to share once compiled
+ */
+public final class WildcardMatcher {
+
+  private static final WildcardMatcher EMPTY = new WildcardMatcher(Map.of());
+
+  private final Map<String, Node> roots;
+
+  private WildcardMatcher(Map<String, Node> roots) {
+    this.roots = roots;
+  }
+
+  /**
+   * @param granted the wildcard permissions held by the principal such as {@code
+   *     document:read,write:*}, empty permissions are ignored
+   */
+  public static WildcardMatcher compile(Collection<Wildcard> granted) {
+    if (granted.isEmpty()) {
+      return EMPTY;
+    }
+
+    Map<String, Node> roots = new HashMap<>();
+    for (Wildcard wildcard : granted) {
+      if (wildcard.permission().isEmpty()) {
+        continue;
+      }
+      add(roots.computeIfAbsent(wildcard.resource(), r -> new Node()), wildcard.permission());
+    }
+    return new WildcardMatcher(roots);
+  }
+
+  /** true when a granted permission for the same resource implies the required permission */
+  public boolean implies(Wildcard required) {
+    return implies(required.permission(), required.resource());
+  }
+
+  /** true when a granted permission for the resource implies the required permission */
+  public boolean implies(String permission, String resource) {
+    Node root = roots.get(resource);
+    return null != root && matches(root, permission, 0);
+  }
+
+  private static void add(Node root, String permission) {
+    String[] parts = permission.split(":", -1);
+    Node node = root;
+    for (int i = 0; i < parts.length; i++) {
+      if (isWildcardTail(parts, i)) {
+        node.tail = true;
+      }
+      node = node.child(parts[i].split(",", -1));
+    }
+    node.end = true;
+    node.tail = true;
+  }
+
+  /** true when every part from start on is a wildcard */
+  private static boolean isWildcardTail(String[] parts, int start) {
+    for (int i = start; i < parts.length; i++) {
+      if (!isWildcard(parts[i].split(",", -1))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWildcard(String[] subParts) {
+    for (String subPart : subParts) {
+      if ("*".equals(subPart)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param start index of the next required part, greater than the length when every part of the
+   *     required permission has been matched
+   */
+  private static boolean matches(Node node, String required, int start) {
+    if (node.end) {
+      // a granted permission with fewer parts
+      return true;
+    }
+
+    int length = required.length();
+    if (start > length) {
+      return node.tail;
+    }
+
+    int end = required.indexOf(':', start);
+    if (-1 == end) {
+      end = length;
+    }
+    int next = end + 1;
+
+    if (null != node.wildcard && matches(node.wildcard, required, next)) {
+      return true;
+    }
+
+    // a single sub part is looked up, a part with several only matches when they are all equal
+    int subEnd = subPartEnd(required, start, end);
+    Node child = node.get(required, start, subEnd);
+    if (null != child
+        && (subEnd == end || allEqual(required, subEnd + 1, end, start, subEnd))
+        && matches(child, required, next)) {
+      return true;
+    }
+
+    for (int i = 0; i < node.setCount; i++) {
+      if (containsAll(node.sets[i], required, start, end)
+          && matches(node.setChildren[i], required, next)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int subPartEnd(String required, int start, int end) {
+    int comma = required.indexOf(',', start);
+    return -1 == comma || comma > end ? end : comma;
+  }
+
+  /** true when every sub part from start to end equals the sub part from first to firstEnd */
+  private static boolean allEqual(String required, int start, int end, int first, int firstEnd) {
+    int length = firstEnd - first;
+    for (int i = start; i <= end; ) {
+      int subEnd = subPartEnd(required, i, end);
+      if (subEnd - i != length || !required.regionMatches(i, required, first, length)) {
+        return false;
+      }
+      i = subEnd + 1;
+    }
+    return true;
+  }
+
+  /** true when every sub part of the required part is one of the granted sub parts */
+  private static boolean containsAll(String[] granted, String required, int start, int end) {
+    for (int i = start; i <= end; ) {
+      int subEnd = subPartEnd(required, i, end);
+      if (!contains(granted, required, i, subEnd)) {
+        return false;
+      }
+      i = subEnd + 1;
+    }
+    return true;
+  }
+
+  private static boolean contains(String[] granted, String required, int start, int end) {
+    int length = end - start;
+    for (String subPart : granted) {
+      if (subPart.length() == length && required.regionMatches(start, subPart, 0, length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int hash(String value, int start, int end) {
+    // String.hashCode of the region
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + value.charAt(i);
+    }
+    return h ^ (h >>> 16);
+  }
+
+  private static final class Node {
+
+    // open addressing table of the children for parts with a single sub part
+    private String[] keys = new String[4];
+    private Node[] children = new Node[4];
+    private int size;
+
+    // the child for parts with a '*' sub part
+    private Node wildcard;
+
+    // the children for parts with several sub parts
+    private String[][] sets = new String[0][];
+    private Node[] setChildren = new Node[0];
+    private int setCount;
+
+    // a granted permission ends here and implies every longer permission
+    private boolean end;
+    // a required permission ending here is implied, the remaining granted parts are all '*'
+    private boolean tail;
+
+    Node child(String[] subParts) {
+      if (isWildcard(subParts)) {
+        if (null == wildcard) {
+          wildcard = new Node();
+        }
+        return wildcard;
+      }
+
+      if (1 == subParts.length) {
+        String key = subParts[0];
+        Node child = get(key, 0, key.length());
+        if (null == child) {
+          child = new Node();
+          put(key, child);
+        }
+        return child;
+      }
+
+      for (int i = 0; i < setCount; i++) {
+        if (Arrays.equals(sets[i], subParts)) {
+          return setChildren[i];
+        }
+      }
+      if (setCount == sets.length) {
+        sets = Arrays.copyOf(sets, Math.max(2, setCount * 2));
+        setChildren = Arrays.copyOf(setChildren, sets.length);
+      }
+      Node child = new Node();
+      sets[setCount] = subParts;
+      setChildren[setCount] = child;
+      setCount++;
+      return child;
+    }
+
+    Node get(String part, int start, int end) {
+      int length = end - start;
+      int mask = keys.length - 1;
+      for (int i = hash(part, start, end) & mask; null != keys[i]; i = (i + 1) & mask) {
+        String key = keys[i];
+        if (key.length() == length && part.regionMatches(start, key, 0, length)) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    private void put(String key, Node child) {
+      if ((size + 1) * 2 > keys.length) {
+        resize();
+      }
+
+      int mask = keys.length - 1;
+      int i = hash(key, 0, key.length()) & mask;
+      while (null != keys[i]) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      children[i] = child;
+      size++;
+    }
+
+    private void resize() {
+      String[] oldKeys = keys;
+      Node[] oldChildren = children;
+      keys = new String[oldKeys.length * 2];
+      children = new Node[oldKeys.length * 2];
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (null != oldKeys[i]) {
+          put(oldKeys[i], oldChildren[i]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.serviceproxy;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * client side of a streamed service proxy call <br>
+ * items are received on a temporary address and the handler may only send as many items as it has
+ * been granted credits for, so at most {@code credits} items are buffered here <br>
+ * credits are only granted while there is demand, a paused stream stops the sender <br>
+ * when no message arrives for the idle timeout, because the handler went away or the reader stayed
+ * paused, the stream fails with a ReplyFailure.TIMEOUT and the reader unregisters
+ */
+public class EventBusStreamReader<T> implements ReadStream<T> {
+
+  public static final int DEFAULT_CREDITS = 128;
+
+  private final Vertx vertx;
+  private final Function<JsonObject, T> decoder;
+  private final int credits;
+  private final long idleTimeoutMillis;
+  private final MessageConsumer<JsonObject> consumer;
+  private final ArrayDeque<T> pending = new ArrayDeque<>();
+
+  private String controlAddress;
+  private Handler<T> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+  private long demand = Long.MAX_VALUE;
+  private int outstanding;
+  private boolean ended;
+  private boolean closed;
+  private boolean emitting;
+  private long lastMessage;
+  private long timerId = -1L;
+
+  private EventBusStreamReader(
+      Vertx vertx, Function<JsonObject, T> decoder, int credits, long idleTimeoutMillis) {
+    this.vertx = vertx;
+    this.decoder = decoder;
+    this.credits = credits;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.consumer = vertx.eventBus().consumer(UUID.randomUUID().toString(), this::onMessage);
+  }
+
+  public static <T> EventBusStreamReader<T> create(
+      Vertx vertx, Function<JsonObject, T> decoder) {
+    return create(vertx, decoder, DEFAULT_CREDITS);
+  }
+
+  public static <T> EventBusStreamReader<T> create(
+      Vertx vertx, Function<JsonObject, T> decoder, int credits) {
+    return create(vertx, decoder, credits, EventBusStreamWriter.DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param idleTimeoutMillis how long to wait for a message from the handler before giving up,
+   *     less than 1 waits forever
+   */
+  public static <T> EventBusStreamReader<T> create(
+      Vertx vertx, Function<JsonObject, T> decoder, int credits, long idleTimeoutMillis) {
+    if (credits < 1) {
+      throw new IllegalArgumentException("credits must be greater than 0");
+    }
+    return new EventBusStreamReader<>(vertx, decoder, credits, idleTimeoutMillis);
+  }
+
+  /** the address the handler sends items to */
+  public String address() {
+    return consumer.address();
+  }
+
+  /**
+   * sends the request once the consumer is registered, the handler replies with the address to
+   * send credits to
+   */
+  public void connect(Supplier<Future<Message<JsonObject>>> request) {
+    consumer
+        .completion()
+        .compose(ignore -> request.get())
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                fail(ar.cause());
+                return;
+              }
+
+              controlAddress = ar.result().body().getString("controlAddress");
+              lastMessage = System.nanoTime();
+              scheduleIdleCheck(idleTimeoutMillis);
+              requestCredits();
+            });
+  }
+
+  @Override
+  public EventBusStreamReader<T> exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public EventBusStreamReader<T> handler(Handler<T> handler) {
+    this.handler = handler;
+    drain();
+    return this;
+  }
+
+  @Override
+  public EventBusStreamReader<T> pause() {
+    demand = 0L;
+    return this;
+  }
+
+  @Override
+  public EventBusStreamReader<T> resume() {
+    return fetch(Long.MAX_VALUE);
+  }
+
+  @Override
+  public EventBusStreamReader<T> fetch(long amount) {
+    if (amount < 0L) {
+      throw new IllegalArgumentException("amount must not be negative");
+    }
+
+    demand += amount;
+    if (demand < 0L) {
+      demand = Long.MAX_VALUE;
+    }
+    drain();
+    return this;
+  }
+
+  @Override
+  public EventBusStreamReader<T> endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void onMessage(Message<JsonObject> msg) {
+    if (closed) {
+      return;
+    }
+
+    lastMessage = System.nanoTime();
+    String type = msg.headers().get("stream");
+    switch (type) {
+      case "item" -> {
+        outstanding--;
+        pending.add(decoder.apply(msg.body()));
+      }
+      case "end" -> ended = true;
+      case "error" -> {
+        JsonObject body = msg.body();
+        fail(
+            new ReplyException(
+                body.getBoolean("timeout", false)
+                    ? ReplyFailure.TIMEOUT
+                    : ReplyFailure.RECIPIENT_FAILURE,
+                body.getInteger("failureCode"),
+                body.getString("message")));
+        return;
+      }
+      case null, default -> {
+        fail(new IllegalStateException("Invalid stream message: " + type));
+        return;
+      }
+    }
+
+    drain();
+  }
+
+  private void drain() {
+    // a handler calling fetch must not emit items out of order
+    if (emitting || closed) {
+      return;
+    }
+
+    emitting = true;
+    try {
+      // items stay buffered until a handler is set
+      while (handler != null && demand > 0L && !pending.isEmpty()) {
+        if (demand != Long.MAX_VALUE) {
+          demand--;
+        }
+        handler.handle(pending.poll());
+      }
+    } finally {
+      emitting = false;
+    }
+
+    if (ended && pending.isEmpty()) {
+      close();
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+      return;
+    }
+
+    requestCredits();
+  }
+
+  private void requestCredits() {
+    if (controlAddress == null || ended || closed || demand == 0L) {
+      return;
+    }
+
+    // top up in bulk once half of the window is free, not once per item
+    int missing = credits - outstanding - pending.size();
+    if (missing > 0 && missing >= Math.max(1, credits / 2)) {
+      outstanding += missing;
+      vertx.eventBus().send(controlAddress, new JsonObject().put("credits", missing));
+    }
+  }
+
+  private void scheduleIdleCheck(long delayMillis) {
+    if (idleTimeoutMillis < 1L) {
+      return;
+    }
+
+    // one timer per reader, re-armed for the remaining time instead of on every message
+    timerId =
+        vertx.setTimer(
+            Math.max(1L, delayMillis),
+            id -> {
+              timerId = -1L;
+              if (closed) {
+                return;
+              }
+
+              long idleMillis = (System.nanoTime() - lastMessage) / 1_000_000L;
+              if (idleMillis >= idleTimeoutMillis) {
+                fail(
+                    new ReplyException(
+                        ReplyFailure.TIMEOUT,
+                        "no stream message received for " + idleTimeoutMillis + "ms"));
+              } else {
+                scheduleIdleCheck(idleTimeoutMillis - idleMillis);
+              }
+            });
+  }
+
+  private void fail(Throwable t) {
+    if (closed) {
+      return;
+    }
+
+    pending.clear();
+    close();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
+    }
+  }
+
+  private void close() {
+    closed = true;
+    if (timerId != -1L) {
+      vertx.cancelTimer(timerId);
+      timerId = -1L;
+    }
+    consumer.unregister();
+  }
+}
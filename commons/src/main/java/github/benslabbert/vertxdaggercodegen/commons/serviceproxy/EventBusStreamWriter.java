@@ -0,0 +1,166 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.serviceproxy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * handler side of a streamed service proxy call <br>
+ * the source is paused and only fetched for the credits granted by the {@link
+ * EventBusStreamReader}, items are sent to the reader address one message per item <br>
+ * when no credits arrive for the idle timeout, because the reader went away or stayed paused, the
+ * writer fails the stream with a timeout, unregisters and detaches from the source and leaves it
+ * paused
+ */
+public class EventBusStreamWriter<T> {
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5L * 60L * 1000L;
+
+  private final Vertx vertx;
+  private final ReadStream<T> source;
+  private final String dataAddress;
+  private final Function<T, JsonObject> encoder;
+  private final MessageConsumer<JsonObject> consumer;
+  private final long idleTimeoutMillis;
+
+  private long lastCredits;
+  private long timerId = -1L;
+  private boolean closed;
+
+  private EventBusStreamWriter(
+      Vertx vertx,
+      ReadStream<T> source,
+      String dataAddress,
+      Function<T, JsonObject> encoder,
+      long idleTimeoutMillis) {
+    this.vertx = vertx;
+    this.source = source;
+    this.dataAddress = dataAddress;
+    this.encoder = encoder;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.consumer = vertx.eventBus().consumer(UUID.randomUUID().toString(), this::onCredits);
+    this.lastCredits = System.nanoTime();
+    scheduleIdleCheck(idleTimeoutMillis);
+
+    source.pause();
+    source.handler(item -> send("item", encoder.apply(item)));
+    source.exceptionHandler(this::fail);
+    source.endHandler(
+        ignore -> {
+          send("end", null);
+          close();
+        });
+  }
+
+  public static <T> EventBusStreamWriter<T> create(
+      Vertx vertx, ReadStream<T> source, String dataAddress, Function<T, JsonObject> encoder) {
+    return create(vertx, source, dataAddress, encoder, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param idleTimeoutMillis how long to wait for credits before giving up, less than 1 waits
+   *     forever
+   */
+  public static <T> EventBusStreamWriter<T> create(
+      Vertx vertx,
+      ReadStream<T> source,
+      String dataAddress,
+      Function<T, JsonObject> encoder,
+      long idleTimeoutMillis) {
+    return new EventBusStreamWriter<>(vertx, source, dataAddress, encoder, idleTimeoutMillis);
+  }
+
+  /** the address the reader sends credits to */
+  public String address() {
+    return consumer.address();
+  }
+
+  private void onCredits(Message<JsonObject> msg) {
+    if (closed) {
+      return;
+    }
+
+    Long credits = msg.body().getLong("credits");
+    if (credits != null && credits > 0L) {
+      lastCredits = System.nanoTime();
+      source.fetch(credits);
+    }
+  }
+
+  private void scheduleIdleCheck(long delayMillis) {
+    if (idleTimeoutMillis < 1L) {
+      return;
+    }
+
+    // one timer per writer, re-armed for the remaining time instead of on every credit
+    timerId =
+        vertx.setTimer(
+            Math.max(1L, delayMillis),
+            id -> {
+              timerId = -1L;
+              if (closed) {
+                return;
+              }
+
+              long idleMillis = (System.nanoTime() - lastCredits) / 1_000_000L;
+              if (idleMillis >= idleTimeoutMillis) {
+                timeout();
+              } else {
+                scheduleIdleCheck(idleTimeoutMillis - idleMillis);
+              }
+            });
+  }
+
+  private void fail(Throwable t) {
+    if (closed) {
+      return;
+    }
+
+    int failureCode = t instanceof ReplyException re ? re.failureCode() : 500;
+    send("error", new JsonObject().put("failureCode", failureCode).put("message", t.getMessage()));
+    close();
+  }
+
+  private void timeout() {
+    // the reader fails with a ReplyFailure.TIMEOUT
+    send(
+        "error",
+        new JsonObject()
+            .put("failureCode", -1)
+            .put("timeout", true)
+            .put("message", "no credits received for " + idleTimeoutMillis + "ms"));
+    close();
+  }
+
+  private void send(String type, JsonObject body) {
+    if (closed) {
+      return;
+    }
+
+    vertx.eventBus().send(dataAddress, body, new DeliveryOptions().addHeader("stream", type));
+  }
+
+  private void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    if (timerId != -1L) {
+      vertx.cancelTimer(timerId);
+      timerId = -1L;
+    }
+    consumer.unregister();
+    source.pause();
+    source.handler(null);
+    source.exceptionHandler(null);
+    source.endHandler(null);
+  }
+}
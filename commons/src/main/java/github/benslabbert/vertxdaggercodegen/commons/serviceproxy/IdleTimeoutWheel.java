@@ -0,0 +1,190 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.serviceproxy;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * hashed timing wheel expiring idle proxy handlers <br>
+ * one wheel and one periodic timer are shared by all handlers created on the same context, handlers
+ * created outside of a context share one wheel per Vertx instance, kept in its local shared data so
+ * it goes away with the instance, the timer only runs while timeouts are scheduled <br>
+ * handlers only record their last access time, an entry whose deadline is reached while the handler
+ * was accessed in the meantime is moved to the slot of its new deadline instead of expiring <br>
+ * the last access time may be read from another thread, it must be read from a volatile field
+ */
+public final class IdleTimeoutWheel implements Shareable {
+
+  private static final long TICK_MILLIS = 1000L;
+  private static final long TICK_NANOS = TICK_MILLIS * 1_000_000L;
+  private static final int SLOTS = 512;
+  private static final int MASK = SLOTS - 1;
+  private static final String KEY = IdleTimeoutWheel.class.getName();
+
+  private final Vertx vertx;
+  private final Timeout[] slots = new Timeout[SLOTS];
+
+  private long tick;
+  private long timerId = -1L;
+  private int size;
+
+  private IdleTimeoutWheel(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  /** the wheel for the current context, created on first use */
+  public static IdleTimeoutWheel get(Vertx vertx) {
+    Context context = Vertx.currentContext();
+    if (context == null || context.owner() != vertx) {
+      // getOrCreateContext would create a new context and so a new wheel on every call
+      return vertx
+          .sharedData()
+          .<String, IdleTimeoutWheel>getLocalMap(KEY)
+          .computeIfAbsent(KEY, k -> new IdleTimeoutWheel(vertx));
+    }
+
+    IdleTimeoutWheel wheel = context.get(KEY);
+    if (wheel == null) {
+      wheel = new IdleTimeoutWheel(vertx);
+      context.put(KEY, wheel);
+    }
+    return wheel;
+  }
+
+  /**
+   * runs onTimeout once more than timeoutMillis have passed since lastAccessed, lastAccessed must
+   * return a System.nanoTime() value
+   */
+  public synchronized Timeout schedule(
+      long timeoutMillis, LongSupplier lastAccessed, Runnable onTimeout) {
+    if (timeoutMillis < 1L) {
+      throw new IllegalArgumentException("timeoutMillis must be greater than 0");
+    }
+
+    Timeout timeout = new Timeout(this, timeoutMillis * 1_000_000L, lastAccessed, onTimeout);
+    add(timeout, lastAccessed.getAsLong() + timeout.timeoutNanos, System.nanoTime());
+    size++;
+    if (timerId == -1L) {
+      timerId = vertx.setPeriodic(TICK_MILLIS, id -> advance());
+    }
+    return timeout;
+  }
+
+  private void add(Timeout timeout, long deadlineNanos, long now) {
+    long ticks = Math.max(1L, (deadlineNanos - now + TICK_NANOS - 1L) / TICK_NANOS);
+    timeout.deadlineTick = tick + ticks;
+    link(timeout, (int) (timeout.deadlineTick & MASK));
+  }
+
+  private void link(Timeout timeout, int slot) {
+    timeout.slot = slot;
+    timeout.prev = null;
+    timeout.next = slots[slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    slots[slot] = timeout;
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      slots[timeout.slot] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+  }
+
+  private void advance() {
+    List<Timeout> expired = new ArrayList<>();
+
+    synchronized (this) {
+      tick++;
+      int slot = (int) (tick & MASK);
+      Timeout timeout = slots[slot];
+      slots[slot] = null;
+      long now = System.nanoTime();
+
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        timeout.prev = null;
+        timeout.next = null;
+
+        if (timeout.deadlineTick > tick) {
+          // due in a later round of the wheel
+          link(timeout, slot);
+        } else {
+          long lastAccessed = timeout.lastAccessed.getAsLong();
+          if (now - lastAccessed > timeout.timeoutNanos) {
+            timeout.cancelled = true;
+            size--;
+            expired.add(timeout);
+          } else {
+            add(timeout, lastAccessed + timeout.timeoutNanos, now);
+          }
+        }
+
+        timeout = next;
+      }
+
+      stopIfEmpty();
+    }
+
+    for (Timeout timeout : expired) {
+      timeout.onTimeout.run();
+    }
+  }
+
+  private synchronized void cancel(Timeout timeout) {
+    if (timeout.cancelled) {
+      return;
+    }
+
+    // removed right away so cancelled handlers are not kept reachable until their slot comes up
+    unlink(timeout);
+    timeout.cancelled = true;
+    size--;
+    stopIfEmpty();
+  }
+
+  private void stopIfEmpty() {
+    if (size == 0 && timerId != -1L) {
+      vertx.cancelTimer(timerId);
+      timerId = -1L;
+    }
+  }
+
+  public static final class Timeout {
+
+    private final IdleTimeoutWheel wheel;
+    private final long timeoutNanos;
+    private final LongSupplier lastAccessed;
+    private final Runnable onTimeout;
+
+    private long deadlineTick;
+    private int slot;
+    private Timeout prev;
+    private Timeout next;
+    private boolean cancelled;
+
+    private Timeout(
+        IdleTimeoutWheel wheel, long timeoutNanos, LongSupplier lastAccessed, Runnable onTimeout) {
+      this.wheel = wheel;
+      this.timeoutNanos = timeoutNanos;
+      this.lastAccessed = lastAccessed;
+      this.onTimeout = onTimeout;
+    }
+
+    public void cancel() {
+      wheel.cancel(this);
+    }
+  }
+}
@@ -1,12 +1,14 @@
 /* Licensed under Apache-2.0 2024. */
 package github.benslabbert.vertxdaggercodegen.commons.web;
 
-public final class BooleanParser implements Parser<Boolean> {
+public final class BooleanParser implements Parser<Boolean>, Parser.OfBoolean {
+
+  private static final BooleanParser INSTANCE = new BooleanParser();
 
   private BooleanParser() {}
 
   public static BooleanParser create() {
-    return new BooleanParser();
+    return INSTANCE;
   }
 
   @Override
@@ -18,4 +20,9 @@ public final class BooleanParser implements Parser<Boolean> {
   public Boolean parse(String value, Boolean defaultValue) {
     return null == value ? defaultValue : parse(value);
   }
+
+  @Override
+  public boolean parseBoolean(CharSequence value, int start, int end) {
+    return PrimitiveParser.parseBoolean(value, start, end);
+  }
 }
@@ -1,12 +1,14 @@
 /* Licensed under Apache-2.0 2024. */
 package github.benslabbert.vertxdaggercodegen.commons.web;
 
-public final class DoubleParser implements Parser<Double> {
+public final class DoubleParser implements Parser<Double>, Parser.OfDouble {
+
+  private static final DoubleParser INSTANCE = new DoubleParser();
 
   private DoubleParser() {}
 
   public static DoubleParser create() {
-    return new DoubleParser();
+    return INSTANCE;
   }
 
   @Override
@@ -18,4 +20,9 @@ public final class DoubleParser implements Parser<Double> {
   public Double parse(String value, Double defaultValue) {
     return null == value ? defaultValue : parse(value);
   }
+
+  @Override
+  public double parseDouble(CharSequence value, int start, int end, double defaultValue) {
+    return PrimitiveParser.parseDouble(value, start, end, defaultValue);
+  }
 }
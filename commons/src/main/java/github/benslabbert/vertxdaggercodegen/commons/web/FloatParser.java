@@ -1,12 +1,14 @@
 /* Licensed under Apache-2.0 2024. */
 package github.benslabbert.vertxdaggercodegen.commons.web;
 
-public final class FloatParser implements Parser<Float> {
+public final class FloatParser implements Parser<Float>, Parser.OfFloat {
+
+  private static final FloatParser INSTANCE = new FloatParser();
 
   private FloatParser() {}
 
   public static FloatParser create() {
-    return new FloatParser();
+    return INSTANCE;
   }
 
   @Override
@@ -18,4 +20,9 @@ public final class FloatParser implements Parser<Float> {
   public Float parse(String value, Float defaultValue) {
     return null == value ? defaultValue : parse(value);
   }
+
+  @Override
+  public float parseFloat(CharSequence value, int start, int end, float defaultValue) {
+    return PrimitiveParser.parseFloat(value, start, end, defaultValue);
+  }
 }
@@ -5,21 +5,22 @@ import java.time.Instant;
 
 public final class InstantParser implements Parser<Instant> {
 
+  private static final InstantParser INSTANCE = new InstantParser();
+
   private InstantParser() {}
 
   public static InstantParser create() {
-    return new InstantParser();
+    return INSTANCE;
   }
 
+  /** unix millis, null when missing or not a long */
   @Override
   public Instant parse(String value) {
-    Integer parse = IntegerParser.create().parse(value);
-
-    if (null == parse) {
+    if (null == value || !PrimitiveParser.isLong(value, 0, value.length())) {
       return null;
     }
 
-    return Instant.ofEpochMilli(parse);
+    return Instant.ofEpochMilli(PrimitiveParser.parseLong(value, 0, value.length(), 0L));
   }
 
   @Override
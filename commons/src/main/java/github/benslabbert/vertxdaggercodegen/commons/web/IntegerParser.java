@@ -3,12 +3,14 @@ package github.benslabbert.vertxdaggercodegen.commons.web;
 
 import org.apache.commons.lang3.math.NumberUtils;
 
-public final class IntegerParser implements Parser<Integer> {
+public final class IntegerParser implements Parser<Integer>, Parser.OfInt {
+
+  private static final IntegerParser INSTANCE = new IntegerParser();
 
   private IntegerParser() {}
 
   public static IntegerParser create() {
-    return new IntegerParser();
+    return INSTANCE;
   }
 
   @Override
@@ -20,4 +22,9 @@ public final class IntegerParser implements Parser<Integer> {
   public Integer parse(String value, Integer defaultValue) {
     return NumberUtils.isCreatable(value) ? NumberUtils.createInteger(value) : defaultValue;
   }
+
+  @Override
+  public int parseInt(CharSequence value, int start, int end, int defaultValue) {
+    return PrimitiveParser.parseInt(value, start, end, defaultValue);
+  }
 }
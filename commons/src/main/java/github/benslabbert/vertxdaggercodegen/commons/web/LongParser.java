@@ -3,12 +3,14 @@ package github.benslabbert.vertxdaggercodegen.commons.web;
 
 import org.apache.commons.lang3.math.NumberUtils;
 
-public final class LongParser implements Parser<Long> {
+public final class LongParser implements Parser<Long>, Parser.OfLong {
+
+  private static final LongParser INSTANCE = new LongParser();
 
   private LongParser() {}
 
   public static LongParser create() {
-    return new LongParser();
+    return INSTANCE;
   }
 
   @Override
@@ -20,4 +22,9 @@ public final class LongParser implements Parser<Long> {
   public Long parse(String value, Long defaultValue) {
     return NumberUtils.isCreatable(value) ? NumberUtils.createLong(value) : defaultValue;
   }
+
+  @Override
+  public long parseLong(CharSequence value, int start, int end, long defaultValue) {
+    return PrimitiveParser.parseLong(value, start, end, defaultValue);
+  }
 }
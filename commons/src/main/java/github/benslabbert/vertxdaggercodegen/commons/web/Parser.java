@@ -6,4 +6,70 @@ public interface Parser<T> {
   T parse(String value);
 
   T parse(String value, T defaultValue);
+
+  /**
+   * parses decimal int values without boxing, straight from the characters of the value <br>
+   * the default is returned for missing or invalid values
+   */
+  interface OfInt {
+
+    int parseInt(CharSequence value, int start, int end, int defaultValue);
+
+    default int parseInt(CharSequence value, int defaultValue) {
+      return null == value ? defaultValue : parseInt(value, 0, value.length(), defaultValue);
+    }
+  }
+
+  /**
+   * parses decimal long values without boxing, straight from the characters of the value <br>
+   * the default is returned for missing or invalid values
+   */
+  interface OfLong {
+
+    long parseLong(CharSequence value, int start, int end, long defaultValue);
+
+    default long parseLong(CharSequence value, long defaultValue) {
+      return null == value ? defaultValue : parseLong(value, 0, value.length(), defaultValue);
+    }
+  }
+
+  /**
+   * parses float values without boxing <br>
+   * the default is returned for missing or invalid values
+   */
+  interface OfFloat {
+
+    float parseFloat(CharSequence value, int start, int end, float defaultValue);
+
+    default float parseFloat(CharSequence value, float defaultValue) {
+      return null == value ? defaultValue : parseFloat(value, 0, value.length(), defaultValue);
+    }
+  }
+
+  /**
+   * parses double values without boxing <br>
+   * the default is returned for missing or invalid values
+   */
+  interface OfDouble {
+
+    double parseDouble(CharSequence value, int start, int end, double defaultValue);
+
+    default double parseDouble(CharSequence value, double defaultValue) {
+      return null == value ? defaultValue : parseDouble(value, 0, value.length(), defaultValue);
+    }
+  }
+
+  /**
+   * parses boolean values without boxing, "true" ignoring case is true and anything else false
+   * <br>
+   * the default is returned for missing values
+   */
+  interface OfBoolean {
+
+    boolean parseBoolean(CharSequence value, int start, int end);
+
+    default boolean parseBoolean(CharSequence value, boolean defaultValue) {
+      return null == value ? defaultValue : parseBoolean(value, 0, value.length());
+    }
+  }
 }
@@ -0,0 +1,543 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.web;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * parsing used by the generated param parsers, values are parsed straight into primitives without
+ * parser instances or boxing <br>
+ * the variants taking the parameter name are used for parameters without a default and fail with
+ * an IllegalArgumentException naming the parameter <br>
+ * defaults follow the boxed parsers: int, long and timestamp values use the default when the value
+ * is missing or not a number, float and double values only when the value is missing <br>
+ * the variants taking a character range parse in place and return the default for invalid values,
+ * they back the {@link Parser.OfInt} style parsers <br>
+ * timestamps are unix millis, epoch seconds or ISO-8601 instants, ISO-8601 defaults are passed as
+ * unix millis
+ */
+public final class PrimitiveParser {
+
+  // powers of ten that are exact, dividing an exact mantissa by them rounds correctly
+  private static final double[] POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final float[] FLOAT_POW10 = {
+    1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private PrimitiveParser() {}
+
+  public static int parseInt(String name, String value) {
+    if (null == value) {
+      throw missing(name);
+    }
+
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw invalid(name, value);
+    }
+  }
+
+  public static int parseInt(String value, int defaultValue) {
+    return null == value ? defaultValue : parseInt(value, 0, value.length(), defaultValue);
+  }
+
+  /** decimal int between start and end, the default when invalid or out of range */
+  public static int parseInt(CharSequence value, int start, int end, int defaultValue) {
+    if (start >= end) {
+      return defaultValue;
+    }
+
+    char first = value.charAt(start);
+    boolean negative = '-' == first;
+    int i = negative || '+' == first ? start + 1 : start;
+    if (i == end) {
+      return defaultValue;
+    }
+
+    long result = 0L;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      int digit = c - '0';
+      if (digit < 0 || digit > 9) {
+        return c < 128 ? defaultValue : parseIntSlow(value, start, end, defaultValue);
+      }
+
+      result = result * 10 + digit;
+      if (result > 1L + Integer.MAX_VALUE) {
+        return defaultValue;
+      }
+    }
+
+    if (negative) {
+      return (int) -result;
+    }
+    return result > Integer.MAX_VALUE ? defaultValue : (int) result;
+  }
+
+  /** true when the characters between start and end are a decimal int */
+  public static boolean isInt(CharSequence value, int start, int end) {
+    return isInteger(value, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /** true when the characters between start and end are a decimal long */
+  public static boolean isLong(CharSequence value, int start, int end) {
+    return isInteger(value, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  public static long parseLong(String name, String value) {
+    if (null == value) {
+      throw missing(name);
+    }
+
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw invalid(name, value);
+    }
+  }
+
+  public static long parseLong(String value, long defaultValue) {
+    return null == value ? defaultValue : parseLong(value, 0, value.length(), defaultValue);
+  }
+
+  /** decimal long between start and end, the default when invalid or out of range */
+  public static long parseLong(CharSequence value, int start, int end, long defaultValue) {
+    if (start >= end) {
+      return defaultValue;
+    }
+
+    char first = value.charAt(start);
+    boolean negative = '-' == first;
+    int i = negative || '+' == first ? start + 1 : start;
+    if (i == end) {
+      return defaultValue;
+    }
+
+    // accumulate negatively so Long.MIN_VALUE fits
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multiplyMin = limit / 10;
+    long result = 0L;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      int digit = c - '0';
+      if (digit < 0 || digit > 9) {
+        return c < 128 ? defaultValue : parseLongSlow(value, start, end, defaultValue);
+      }
+      if (result < multiplyMin) {
+        return defaultValue;
+      }
+
+      result *= 10;
+      if (result < limit + digit) {
+        return defaultValue;
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  public static float parseFloat(String name, String value) {
+    if (null == value) {
+      throw missing(name);
+    }
+
+    try {
+      return Float.parseFloat(value);
+    } catch (NumberFormatException e) {
+      throw invalid(name, value);
+    }
+  }
+
+  public static float parseFloat(String name, String value, float defaultValue) {
+    return null == value ? defaultValue : parseFloat(name, value);
+  }
+
+  /**
+   * float between start and end, the default when invalid <br>
+   * plain decimals with up to 7 significant digits are parsed in place, anything else is handed to
+   * Float.parseFloat
+   */
+  public static float parseFloat(CharSequence value, int start, int end, float defaultValue) {
+    long bits = scanDecimal(value, start, end);
+    if (-1L != bits) {
+      long mantissa = bits >>> 8;
+      int scale = (int) (bits & 0x7FL);
+      if (mantissa < (1L << 24) && scale < FLOAT_POW10.length) {
+        float result = 0 == scale ? (float) mantissa : (float) mantissa / FLOAT_POW10[scale];
+        return 0L == (bits & 0x80L) ? result : -result;
+      }
+    }
+
+    try {
+      return Float.parseFloat(value.subSequence(start, end).toString());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  public static double parseDouble(String name, String value) {
+    if (null == value) {
+      throw missing(name);
+    }
+
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw invalid(name, value);
+    }
+  }
+
+  public static double parseDouble(String name, String value, double defaultValue) {
+    return null == value ? defaultValue : parseDouble(name, value);
+  }
+
+  /**
+   * double between start and end, the default when invalid <br>
+   * plain decimals with up to 15 significant digits are parsed in place, anything else is handed to
+   * Double.parseDouble
+   */
+  public static double parseDouble(CharSequence value, int start, int end, double defaultValue) {
+    long bits = scanDecimal(value, start, end);
+    if (-1L != bits) {
+      long mantissa = bits >>> 8;
+      int scale = (int) (bits & 0x7FL);
+      if (mantissa < (1L << 53) && scale < POW10.length) {
+        double result = 0 == scale ? (double) mantissa : (double) mantissa / POW10[scale];
+        return 0L == (bits & 0x80L) ? result : -result;
+      }
+    }
+
+    try {
+      return Double.parseDouble(value.subSequence(start, end).toString());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /** a missing value is false */
+  public static boolean parseBoolean(String value) {
+    return Boolean.parseBoolean(value);
+  }
+
+  public static boolean parseBoolean(String value, boolean defaultValue) {
+    return null == value ? defaultValue : Boolean.parseBoolean(value);
+  }
+
+  /** true when the characters between start and end are "true" ignoring case */
+  public static boolean parseBoolean(CharSequence value, int start, int end) {
+    if (4 != end - start) {
+      return false;
+    }
+
+    return 't' == (value.charAt(start) | 0x20)
+        && 'r' == (value.charAt(start + 1) | 0x20)
+        && 'u' == (value.charAt(start + 2) | 0x20)
+        && 'e' == (value.charAt(start + 3) | 0x20);
+  }
+
+  /** unix millis */
+  public static Instant parseInstant(String name, String value) {
+    return Instant.ofEpochMilli(parseLong(name, value));
+  }
+
+  /** unix millis */
+  public static Instant parseInstant(String value, long defaultValue) {
+    return Instant.ofEpochMilli(parseLong(value, defaultValue));
+  }
+
+  /** epoch seconds */
+  public static Instant parseEpochSecond(String name, String value) {
+    try {
+      return Instant.ofEpochSecond(parseLong(name, value));
+    } catch (DateTimeException e) {
+      throw invalid(name, value);
+    }
+  }
+
+  /** epoch seconds */
+  public static Instant parseEpochSecond(String value, long defaultValue) {
+    Instant instant = null == value ? null : parseEpochSecond(value, 0, value.length());
+    return null == instant ? Instant.ofEpochSecond(defaultValue) : instant;
+  }
+
+  /** epoch seconds between start and end, null when invalid or out of range */
+  public static Instant parseEpochSecond(CharSequence value, int start, int end) {
+    if (!isLong(value, start, end)) {
+      return null;
+    }
+
+    long seconds = parseLong(value, start, end, 0L);
+    if (seconds < Instant.MIN.getEpochSecond() || seconds > Instant.MAX.getEpochSecond()) {
+      return null;
+    }
+    return Instant.ofEpochSecond(seconds);
+  }
+
+  /** ISO-8601 instant such as 2024-02-18T14:41:29Z or 2024-02-18T16:41:29.273+02:00 */
+  public static Instant parseIsoInstant(String name, String value) {
+    if (null == value) {
+      throw missing(name);
+    }
+
+    Instant instant = parseIsoInstant(value, 0, value.length());
+    if (null == instant) {
+      throw invalid(name, value);
+    }
+    return instant;
+  }
+
+  /** ISO-8601 instant, the default is unix millis and used when missing or invalid */
+  public static Instant parseIsoInstant(String value, long defaultValue) {
+    Instant instant = null == value ? null : parseIsoInstant(value, 0, value.length());
+    return null == instant ? Instant.ofEpochMilli(defaultValue) : instant;
+  }
+
+  /**
+   * ISO-8601 instant between start and end, null when invalid <br>
+   * yyyy-MM-ddTHH:mm:ss[.fraction] followed by Z or +HH:mm is parsed in place, anything else is
+   * handed to Instant.parse
+   */
+  public static Instant parseIsoInstant(CharSequence value, int start, int end) {
+    Instant instant = scanIsoInstant(value, start, end);
+    if (null != instant) {
+      return instant;
+    }
+
+    try {
+      return Instant.parse(value.subSequence(start, end));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  public static String parseString(String value, String defaultValue) {
+    return null == value ? defaultValue : value;
+  }
+
+  private static boolean isInteger(CharSequence value, int start, int end, long min, long max) {
+    if (start >= end) {
+      return false;
+    }
+
+    char first = value.charAt(start);
+    boolean negative = '-' == first;
+    int i = negative || '+' == first ? start + 1 : start;
+    if (i == end) {
+      return false;
+    }
+
+    // accumulate negatively so Long.MIN_VALUE fits
+    long limit = negative ? min : -max;
+    long multiplyMin = limit / 10;
+    long result = 0L;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      int digit = c - '0';
+      if (digit < 0 || digit > 9) {
+        return c >= 128 && isIntegerSlow(value, start, end, min, max);
+      }
+      if (result < multiplyMin) {
+        return false;
+      }
+
+      result *= 10;
+      if (result < limit + digit) {
+        return false;
+      }
+      result -= digit;
+    }
+    return true;
+  }
+
+  // Integer.parseInt and Long.parseLong also accept non ASCII digits, these rare values are handed
+  // to them
+  private static int parseIntSlow(CharSequence value, int start, int end, int defaultValue) {
+    try {
+      return Integer.parseInt(value, start, end, 10);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static long parseLongSlow(CharSequence value, int start, int end, long defaultValue) {
+    try {
+      return Long.parseLong(value, start, end, 10);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static boolean isIntegerSlow(
+      CharSequence value, int start, int end, long min, long max) {
+    try {
+      long result = Long.parseLong(value, start, end, 10);
+      return result >= min && result <= max;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * scans [sign] digits [. digits] <br>
+   * returns the mantissa shifted left by 8, the sign in bit 7 and the number of fraction digits in
+   * the low 7 bits, or -1 when the value is not a plain decimal or has more than 16 significant
+   * digits
+   */
+  private static long scanDecimal(CharSequence value, int start, int end) {
+    if (start >= end) {
+      return -1L;
+    }
+
+    char first = value.charAt(start);
+    boolean negative = '-' == first;
+    int i = negative || '+' == first ? start + 1 : start;
+
+    long mantissa = 0L;
+    int significant = 0;
+    int scale = 0;
+    boolean digits = false;
+    boolean fraction = false;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      if ('.' == c && !fraction) {
+        fraction = true;
+        continue;
+      }
+
+      int digit = c - '0';
+      if (digit < 0 || digit > 9) {
+        return -1L;
+      }
+
+      digits = true;
+      if (0L != mantissa || 0 != digit) {
+        significant++;
+      }
+      if (significant > 16 || scale > 100) {
+        return -1L;
+      }
+
+      mantissa = mantissa * 10 + digit;
+      if (fraction) {
+        scale++;
+      }
+    }
+
+    if (!digits) {
+      return -1L;
+    }
+    return mantissa << 8 | (negative ? 0x80L : 0L) | scale;
+  }
+
+  private static Instant scanIsoInstant(CharSequence value, int start, int end) {
+    if (end - start < 20
+        || '-' != value.charAt(start + 4)
+        || '-' != value.charAt(start + 7)
+        || 'T' != value.charAt(start + 10)
+        || ':' != value.charAt(start + 13)
+        || ':' != value.charAt(start + 16)) {
+      return null;
+    }
+
+    int year = digits(value, start, 4);
+    int month = digits(value, start + 5, 2);
+    int day = digits(value, start + 8, 2);
+    int hour = digits(value, start + 11, 2);
+    int minute = digits(value, start + 14, 2);
+    int second = digits(value, start + 17, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+      return null;
+    }
+    // 24:00 and leap seconds are left to Instant.parse
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return null;
+    }
+
+    int i = start + 19;
+    int nanos = 0;
+    if ('.' == value.charAt(i)) {
+      int fractionStart = ++i;
+      for (; i < end && i - fractionStart < 9; i++) {
+        int digit = value.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        nanos = nanos * 10 + digit;
+      }
+      if (i == fractionStart) {
+        return null;
+      }
+      for (int scale = i - fractionStart; scale < 9; scale++) {
+        nanos *= 10;
+      }
+    }
+
+    int offset;
+    if (i == end - 1 && 'Z' == value.charAt(i)) {
+      offset = 0;
+    } else if (i == end - 6 && ':' == value.charAt(i + 3)) {
+      char sign = value.charAt(i);
+      int offsetHours = digits(value, i + 1, 2);
+      int offsetMinutes = digits(value, i + 4, 2);
+      // offsets are limited to +-18:00
+      if (('+' != sign && '-' != sign)
+          || offsetHours < 0
+          || offsetMinutes < 0
+          || offsetMinutes > 59
+          || offsetHours * 60 + offsetMinutes > 18 * 60) {
+        return null;
+      }
+      offset = offsetHours * 3600 + offsetMinutes * 60;
+      offset = '-' == sign ? -offset : offset;
+    } else {
+      return null;
+    }
+
+    long seconds = epochDay(year, month, day) * 86400L + hour * 3600 + minute * 60 + second;
+    return Instant.ofEpochSecond(seconds - offset, nanos);
+  }
+
+  /** the value of count decimal digits at start, -1 when any is not a digit */
+  private static int digits(CharSequence value, int start, int count) {
+    int result = 0;
+    for (int i = start; i < start + count; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    return switch (month) {
+      case 2 -> (0 == year % 4 && 0 != year % 100) || 0 == year % 400 ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+
+  /** days since 1970-01-01 of a proleptic gregorian date, years starting in March */
+  private static long epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468L;
+  }
+
+  static IllegalArgumentException missing(String name) {
+    return new IllegalArgumentException("missing parameter: " + name);
+  }
+
+  static IllegalArgumentException invalid(String name, String value) {
+    return new IllegalArgumentException("invalid parameter: " + name + " value: " + value);
+  }
+}
@@ -0,0 +1,330 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.web;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * single pass over the raw query string used by the generated param parsers instead of {@code
+ * ctx.queryParams()} <br>
+ * only the declared parameter names are looked up, the value of each is kept as a start and end
+ * index into the query, the first occurrence of a name wins as with MultiMap.get <br>
+ * pairs are separated by '&' or ';' as with QueryStringDecoder <br>
+ * numbers are parsed in place, only string values and values containing '%' or '+' are decoded
+ * into a String <br>
+ * defaults and errors follow {@link PrimitiveParser}
+ */
+public final class QueryScanner {
+
+  private final String query;
+  // start and end index of the value of each name, start is -1 when the name is not present
+  private final int[] ranges;
+
+  private QueryScanner(String query, int[] ranges) {
+    this.query = query;
+    this.ranges = ranges;
+  }
+
+  /**
+   * @param query the raw query string without '?', may be null
+   * @param names the declared parameter names, values are addressed by index into names
+   */
+  public static QueryScanner scan(String query, String[] names) {
+    int[] ranges = new int[names.length * 2];
+    for (int n = 0; n < names.length; n++) {
+      ranges[n * 2] = -1;
+    }
+
+    if (null == query) {
+      return new QueryScanner(null, ranges);
+    }
+
+    int length = query.length();
+    int found = 0;
+    int i = 0;
+    while (i < length && found < names.length) {
+      int end = separator(query, i, length);
+
+      int eq = query.indexOf('=', i);
+      if (-1 == eq || eq > end) {
+        eq = end;
+      }
+
+      int n = indexOf(query, i, eq, names);
+      if (-1 != n && -1 == ranges[n * 2]) {
+        ranges[n * 2] = eq == end ? end : eq + 1;
+        ranges[n * 2 + 1] = end;
+        found++;
+      }
+      i = end + 1;
+    }
+    return new QueryScanner(query, ranges);
+  }
+
+  public boolean contains(int index) {
+    return -1 != ranges[index * 2];
+  }
+
+  /** the decoded value, null when not present */
+  public String value(int index) {
+    int start = ranges[index * 2];
+    return -1 == start ? null : decode(start, ranges[index * 2 + 1]);
+  }
+
+  public int parseInt(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseInt(name, decode(start, end));
+    }
+    if (!PrimitiveParser.isInt(query, start, end)) {
+      throw PrimitiveParser.invalid(name, query.substring(start, end));
+    }
+    return PrimitiveParser.parseInt(query, start, end, 0);
+  }
+
+  public int parseInt(int index, int defaultValue) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      return defaultValue;
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseInt(decode(start, end), defaultValue);
+    }
+    return PrimitiveParser.parseInt(query, start, end, defaultValue);
+  }
+
+  public long parseLong(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseLong(name, decode(start, end));
+    }
+    if (!PrimitiveParser.isLong(query, start, end)) {
+      throw PrimitiveParser.invalid(name, query.substring(start, end));
+    }
+    return PrimitiveParser.parseLong(query, start, end, 0L);
+  }
+
+  public long parseLong(int index, long defaultValue) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      return defaultValue;
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseLong(decode(start, end), defaultValue);
+    }
+    return PrimitiveParser.parseLong(query, start, end, defaultValue);
+  }
+
+  public float parseFloat(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseFloat(name, decode(start, end));
+    }
+
+    float value = PrimitiveParser.parseFloat(query, start, end, Float.NaN);
+    // either invalid or a literal NaN, the String variant tells them apart
+    return Float.isNaN(value)
+        ? PrimitiveParser.parseFloat(name, query.substring(start, end))
+        : value;
+  }
+
+  public float parseFloat(int index, String name, float defaultValue) {
+    return contains(index) ? parseFloat(index, name) : defaultValue;
+  }
+
+  public double parseDouble(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseDouble(name, decode(start, end));
+    }
+
+    double value = PrimitiveParser.parseDouble(query, start, end, Double.NaN);
+    // either invalid or a literal NaN, the String variant tells them apart
+    return Double.isNaN(value)
+        ? PrimitiveParser.parseDouble(name, query.substring(start, end))
+        : value;
+  }
+
+  public double parseDouble(int index, String name, double defaultValue) {
+    return contains(index) ? parseDouble(index, name) : defaultValue;
+  }
+
+  /** a missing value is false */
+  public boolean parseBoolean(int index) {
+    return parseBoolean(index, false);
+  }
+
+  public boolean parseBoolean(int index, boolean defaultValue) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      return defaultValue;
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return Boolean.parseBoolean(decode(start, end));
+    }
+    return PrimitiveParser.parseBoolean(query, start, end);
+  }
+
+  /** unix millis */
+  public Instant parseInstant(int index, String name) {
+    return Instant.ofEpochMilli(parseLong(index, name));
+  }
+
+  /** unix millis */
+  public Instant parseInstant(int index, long defaultValue) {
+    return Instant.ofEpochMilli(parseLong(index, defaultValue));
+  }
+
+  /** epoch seconds */
+  public Instant parseEpochSecond(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseEpochSecond(name, decode(start, end));
+    }
+
+    Instant instant = PrimitiveParser.parseEpochSecond(query, start, end);
+    if (null == instant) {
+      throw PrimitiveParser.invalid(name, query.substring(start, end));
+    }
+    return instant;
+  }
+
+  /** epoch seconds */
+  public Instant parseEpochSecond(int index, long defaultValue) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      return Instant.ofEpochSecond(defaultValue);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseEpochSecond(decode(start, end), defaultValue);
+    }
+
+    Instant instant = PrimitiveParser.parseEpochSecond(query, start, end);
+    return null == instant ? Instant.ofEpochSecond(defaultValue) : instant;
+  }
+
+  /** ISO-8601 instant */
+  public Instant parseIsoInstant(int index, String name) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      throw PrimitiveParser.missing(name);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseIsoInstant(name, decode(start, end));
+    }
+
+    Instant instant = PrimitiveParser.parseIsoInstant(query, start, end);
+    if (null == instant) {
+      throw PrimitiveParser.invalid(name, query.substring(start, end));
+    }
+    return instant;
+  }
+
+  /** ISO-8601 instant, the default is unix millis */
+  public Instant parseIsoInstant(int index, long defaultValue) {
+    int start = ranges[index * 2];
+    if (-1 == start) {
+      return Instant.ofEpochMilli(defaultValue);
+    }
+
+    int end = ranges[index * 2 + 1];
+    if (isEncoded(start, end)) {
+      return PrimitiveParser.parseIsoInstant(decode(start, end), defaultValue);
+    }
+
+    Instant instant = PrimitiveParser.parseIsoInstant(query, start, end);
+    return null == instant ? Instant.ofEpochMilli(defaultValue) : instant;
+  }
+
+  public String parseString(int index, String defaultValue) {
+    String value = value(index);
+    return null == value ? defaultValue : value;
+  }
+
+  private boolean isEncoded(int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = query.charAt(i);
+      if ('%' == c || '+' == c) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String decode(int start, int end) {
+    String value = query.substring(start, end);
+    return isEncoded(start, end) ? URLDecoder.decode(value, StandardCharsets.UTF_8) : value;
+  }
+
+  /** the index of the next '&' or ';' from start, length when there is none */
+  private static int separator(String query, int start, int length) {
+    for (int i = start; i < length; i++) {
+      char c = query.charAt(i);
+      if ('&' == c || ';' == c) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  private static int indexOf(String query, int start, int end, String[] names) {
+    int length = end - start;
+    for (int n = 0; n < names.length; n++) {
+      String name = names[n];
+      if (name.length() == length && query.regionMatches(start, name, 0, length)) {
+        return n;
+      }
+    }
+
+    // an encoded key can only match after decoding
+    for (int i = start; i < end; i++) {
+      char c = query.charAt(i);
+      if ('%' == c || '+' == c) {
+        String key = URLDecoder.decode(query.substring(start, end), StandardCharsets.UTF_8);
+        for (int n = 0; n < names.length; n++) {
+          if (names[n].equals(key)) {
+            return n;
+          }
+        }
+        return -1;
+      }
+    }
+    return -1;
+  }
+}
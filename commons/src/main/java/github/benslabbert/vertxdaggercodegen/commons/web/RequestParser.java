@@ -38,4 +38,46 @@ public class RequestParser {
     String string = pathParams.get(key);
     return parser.parse(string, defaultValue);
   }
+
+  // named per type, as overloads they would be picked over the generic methods for existing
+  // callers passing a primitive default and silently change how their values are parsed
+  public int getQueryParamInt(String key, int defaultValue, Parser.OfInt parser) {
+    return parser.parseInt(queryParams.get(key), defaultValue);
+  }
+
+  public long getQueryParamLong(String key, long defaultValue, Parser.OfLong parser) {
+    return parser.parseLong(queryParams.get(key), defaultValue);
+  }
+
+  public float getQueryParamFloat(String key, float defaultValue, Parser.OfFloat parser) {
+    return parser.parseFloat(queryParams.get(key), defaultValue);
+  }
+
+  public double getQueryParamDouble(String key, double defaultValue, Parser.OfDouble parser) {
+    return parser.parseDouble(queryParams.get(key), defaultValue);
+  }
+
+  public boolean getQueryParamBoolean(String key, boolean defaultValue, Parser.OfBoolean parser) {
+    return parser.parseBoolean(queryParams.get(key), defaultValue);
+  }
+
+  public int getPathParamInt(String key, int defaultValue, Parser.OfInt parser) {
+    return parser.parseInt(pathParams.get(key), defaultValue);
+  }
+
+  public long getPathParamLong(String key, long defaultValue, Parser.OfLong parser) {
+    return parser.parseLong(pathParams.get(key), defaultValue);
+  }
+
+  public float getPathParamFloat(String key, float defaultValue, Parser.OfFloat parser) {
+    return parser.parseFloat(pathParams.get(key), defaultValue);
+  }
+
+  public double getPathParamDouble(String key, double defaultValue, Parser.OfDouble parser) {
+    return parser.parseDouble(pathParams.get(key), defaultValue);
+  }
+
+  public boolean getPathParamBoolean(String key, boolean defaultValue, Parser.OfBoolean parser) {
+    return parser.parseBoolean(pathParams.get(key), defaultValue);
+  }
 }
@@ -0,0 +1,151 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.web;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * path scanning used by the generated rest router <br>
+ * segments are addressed by start and end index into the request path, typed segments are checked
+ * and parsed in place without creating substrings or a path parameter map
+ */
+public final class RoutePath {
+
+  private RoutePath() {}
+
+  /**
+   * index of the first '/' of the path below the mount point, -1 when the path is not below the
+   * mount point
+   */
+  public static int start(String path, String mountPoint) {
+    if (null == mountPoint || mountPoint.isEmpty()) {
+      return 0;
+    }
+
+    int length = mountPoint.length();
+    if ('/' == mountPoint.charAt(length - 1)) {
+      length--;
+    }
+    boolean below =
+        path.regionMatches(0, mountPoint, 0, length)
+            && (length == path.length() || '/' == path.charAt(length));
+    return below ? length : -1;
+  }
+
+  /** true when nothing but an optional trailing '/' is left after index */
+  public static boolean isEnd(String path, int index) {
+    int length = path.length();
+    return index >= length || (index == length - 1 && '/' == path.charAt(index));
+  }
+
+  /** index of the '/' ending the segment starting at start, or the length of the path */
+  public static int segmentEnd(String path, int start) {
+    int end = path.indexOf('/', start);
+    return -1 == end ? path.length() : end;
+  }
+
+  /** true when path continues with literal at start and the literal ends on a segment boundary */
+  public static boolean matches(String path, int start, String literal) {
+    if (!path.startsWith(literal, start)) {
+      return false;
+    }
+
+    int end = start + literal.length();
+    return end == path.length() || '/' == path.charAt(end);
+  }
+
+  public static boolean isInt(String path, int start, int end) {
+    return PrimitiveParser.isInt(path, start, end);
+  }
+
+  public static boolean isLong(String path, int start, int end) {
+    return PrimitiveParser.isLong(path, start, end);
+  }
+
+  public static int parseInt(String path, int start, int end) {
+    return Integer.parseInt(path, start, end, 10);
+  }
+
+  public static long parseLong(String path, int start, int end) {
+    return Long.parseLong(path, start, end, 10);
+  }
+
+  public static boolean isBoolean(String path, int start, int end) {
+    int length = end - start;
+    return (4 == length && path.regionMatches(true, start, "true", 0, 4))
+        || (5 == length && path.regionMatches(true, start, "false", 0, 5));
+  }
+
+  /** only valid after {@link #isBoolean(String, int, int)} */
+  public static boolean parseBoolean(String path, int start, int end) {
+    return 4 == end - start;
+  }
+
+  /** Float.NaN when the segment is not a number */
+  public static float parseFloat(String path, int start, int end) {
+    if (!isDecimal(path, start, end)) {
+      return Float.NaN;
+    }
+
+    try {
+      return Float.parseFloat(path.substring(start, end));
+    } catch (NumberFormatException e) {
+      return Float.NaN;
+    }
+  }
+
+  /** Double.NaN when the segment is not a number */
+  public static double parseDouble(String path, int start, int end) {
+    if (!isDecimal(path, start, end)) {
+      return Double.NaN;
+    }
+
+    try {
+      return Double.parseDouble(path.substring(start, end));
+    } catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  /** null when the segment is not epoch seconds */
+  public static Instant parseEpochSecond(String path, int start, int end) {
+    return PrimitiveParser.parseEpochSecond(path, start, end);
+  }
+
+  /** null when the segment is not an ISO-8601 instant */
+  public static Instant parseIsoInstant(String path, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if ('%' == path.charAt(i)) {
+        String segment = decode(path, start, end);
+        return PrimitiveParser.parseIsoInstant(segment, 0, segment.length());
+      }
+    }
+    return PrimitiveParser.parseIsoInstant(path, start, end);
+  }
+
+  /** the percent decoded segment */
+  public static String decode(String path, int start, int end) {
+    String segment = path.substring(start, end);
+    if (-1 == segment.indexOf('%')) {
+      return segment;
+    }
+
+    // '+' is not a space in a path
+    return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+  }
+
+  private static boolean isDecimal(String path, int start, int end) {
+    if (start >= end) {
+      return false;
+    }
+
+    for (int i = start; i < end; i++) {
+      char c = path.charAt(i);
+      if ((c < '0' || c > '9') && '.' != c && '-' != c && '+' != c && 'e' != c && 'E' != c) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
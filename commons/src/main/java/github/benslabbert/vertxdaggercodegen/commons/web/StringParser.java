@@ -3,10 +3,12 @@ package github.benslabbert.vertxdaggercodegen.commons.web;
 
 public final class StringParser implements Parser<String> {
 
+  private static final StringParser INSTANCE = new StringParser();
+
   private StringParser() {}
 
   public static StringParser create() {
-    return new StringParser();
+    return INSTANCE;
   }
 
   @Override
@@ -0,0 +1,229 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.security.rpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class DecisionCacheTest {
+
+  private static final long MILLIS = 1_000_000L;
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<String> resolved = new ArrayList<>();
+
+  private DecisionCache<String> cache(int maximumSize, long ttlMillis) {
+    return new DecisionCache<>(
+        maximumSize,
+        ttlMillis,
+        (principal, method) -> {
+          resolved.add(principal + ":" + method);
+          return 0 == method % 2;
+        },
+        clock::get);
+  }
+
+  @Test
+  void cachesDecisions() {
+    DecisionCache<String> cache = cache(10, 1000L);
+
+    assertThat(cache.isAllowed("alice", 0)).isTrue();
+    assertThat(cache.isAllowed("alice", 1)).isFalse();
+    assertThat(cache.isAllowed("alice", 0)).isTrue();
+    assertThat(cache.isAllowed("alice", 1)).isFalse();
+
+    assertThat(resolved).containsExactly("alice:0", "alice:1");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void ordinalsAboveOneWord() {
+    DecisionCache<String> cache = cache(10, 1000L);
+
+    for (int method : new int[] {0, 63, 64, 127, 130}) {
+      assertThat(cache.isAllowed("alice", method)).isEqualTo(0 == method % 2);
+    }
+    for (int method : new int[] {0, 63, 64, 127, 130}) {
+      assertThat(cache.isAllowed("alice", method)).isEqualTo(0 == method % 2);
+    }
+
+    assertThat(resolved)
+        .containsExactly("alice:0", "alice:63", "alice:64", "alice:127", "alice:130");
+  }
+
+  @Test
+  void negativeMethod() {
+    DecisionCache<String> cache = cache(10, 1000L);
+
+    assertThatThrownBy(() -> cache.isAllowed("alice", -1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(resolved).containsExactly();
+  }
+
+  @Test
+  void expiresTogetherAfterTtl() {
+    DecisionCache<String> cache = cache(10, 10L);
+
+    cache.isAllowed("alice", 0);
+    clock.set(9 * MILLIS);
+    cache.isAllowed("alice", 0);
+    // cached after the first decision so it expires with it
+    cache.isAllowed("alice", 1);
+    clock.set(10 * MILLIS);
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("alice", 1);
+
+    assertThat(resolved).containsExactly("alice:0", "alice:1", "alice:0", "alice:1");
+  }
+
+  @Test
+  void admitsFrequentPrincipalOverLeastRecentlyUsed() {
+    DecisionCache<String> cache = cache(2, 1000L);
+
+    for (int i = 0; i < 3; i++) {
+      cache.isAllowed("alice", 0);
+      cache.isAllowed("bob", 0);
+    }
+    // alice is the most recently used, bob is the eldest
+    cache.isAllowed("alice", 0);
+    resolved.clear();
+
+    // seen less often than bob, resolved but not cached
+    for (int i = 0; i < 3; i++) {
+      cache.isAllowed("carol", 0);
+    }
+    assertThat(resolved).containsExactly("carol:0", "carol:0", "carol:0");
+    assertThat(cache.size()).isEqualTo(2);
+
+    // seen more often than bob, replaces it
+    cache.isAllowed("carol", 0);
+    cache.isAllowed("carol", 0);
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("bob", 0);
+
+    assertThat(resolved).containsExactly("carol:0", "carol:0", "carol:0", "carol:0", "bob:0");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void countsHitsBeyondTheReadBuffer() {
+    DecisionCache<String> cache = cache(2, 1000L);
+
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("bob", 0);
+    for (int i = 0; i < 100; i++) {
+      cache.isAllowed("bob", 0);
+    }
+    cache.isAllowed("alice", 0);
+    resolved.clear();
+
+    // bob is the eldest but seen more often than carol
+    for (int i = 0; i < 5; i++) {
+      cache.isAllowed("carol", 0);
+    }
+    cache.isAllowed("bob", 0);
+
+    assertThat(resolved).containsExactly("carol:0", "carol:0", "carol:0", "carol:0", "carol:0");
+  }
+
+  @Test
+  void concurrentHits() throws InterruptedException {
+    DecisionCache<String> cache =
+        new DecisionCache<>(4, 1000L, (principal, method) -> 0 == method % 2, clock::get);
+    List<Throwable> failures = new CopyOnWriteArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+
+    for (int t = 0; t < 4; t++) {
+      int offset = t;
+      threads.add(
+          Thread.ofPlatform()
+              .start(
+                  () -> {
+                    try {
+                      for (int i = 0; i < 100_000; i++) {
+                        int method = (i + offset) % 130;
+                        assertThat(cache.isAllowed("p" + (i % 8), method))
+                            .isEqualTo(0 == method % 2);
+                        if (0 == i % 1000) {
+                          cache.invalidate("p" + offset);
+                        }
+                      }
+                    } catch (Throwable e) {
+                      failures.add(e);
+                    }
+                  }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(failures).isEmpty();
+    assertThat(cache.size()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void invalidateDuringResolve() {
+    List<DecisionCache<String>> self = new ArrayList<>();
+    DecisionCache<String> cache =
+        new DecisionCache<>(
+            10,
+            1000L,
+            (principal, method) -> {
+              resolved.add(principal + ":" + method);
+              if (1 == resolved.size()) {
+                // roles of alice change while her decision is resolved
+                self.get(0).invalidate("alice");
+              }
+              return true;
+            },
+            clock::get);
+    self.add(cache);
+
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("alice", 0);
+
+    assertThat(resolved).containsExactly("alice:0", "alice:0");
+  }
+
+  @Test
+  void invalidateOtherPrincipalDuringResolve() {
+    List<DecisionCache<String>> self = new ArrayList<>();
+    DecisionCache<String> cache =
+        new DecisionCache<>(
+            10,
+            1000L,
+            (principal, method) -> {
+              resolved.add(principal + ":" + method);
+              self.get(0).invalidate("bob");
+              return true;
+            },
+            clock::get);
+    self.add(cache);
+
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("alice", 0);
+
+    assertThat(resolved).containsExactly("alice:0");
+  }
+
+  @Test
+  void invalidate() {
+    DecisionCache<String> cache = cache(10, 1000L);
+
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("bob", 0);
+    cache.invalidate("alice");
+    cache.isAllowed("alice", 0);
+    cache.isAllowed("bob", 0);
+    cache.invalidateAll();
+    cache.isAllowed("bob", 0);
+
+    assertThat(resolved).containsExactly("alice:0", "bob:0", "alice:0", "bob:0");
+  }
+}
@@ -0,0 +1,89 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.security.rpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class WildcardMatcherTest {
+
+  private static final String RESOURCE = "documents";
+
+  @ParameterizedTest(name = "{0} implies {1}: {2}")
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        // trailing wildcards match missing parts
+        "a:*       | a        | true",
+        "a:*:*     | a:b      | true",
+        "a:*:c     | a        | false",
+        // a shorter grant implies every longer permission it is a prefix of
+        "a         | a:b:c    | true",
+        "a:b       | a:b:c    | true",
+        "a:b       | a        | false",
+        // sub parts
+        "a:b,c     | a:c      | true",
+        "a:b,c     | a:b,c    | true",
+        "a:b,c     | a:c,b    | true",
+        "a:b,c     | a:b,d    | false",
+        "a:b       | a:b,b    | true",
+        "a:b       | a:b,c    | false",
+        // wildcards in the middle
+        "a:*:c     | a:x:c    | true",
+        "a:*:c     | a:x:d    | false",
+        "a:*:c     | a:x      | false",
+        "*:b       | x:b      | true",
+        // a required wildcard is only implied by a granted wildcard
+        "a:b       | a:*      | false",
+        "a:b,c     | a:*      | false",
+        "a:*       | a:*      | true",
+        // no partial matches
+        "a:b       | a:bc     | false",
+        "ab        | a        | false",
+        "a         | ab       | false",
+      })
+  void implies(String granted, String required, boolean expected) {
+    WildcardMatcher matcher = WildcardMatcher.compile(List.of(new Wildcard(granted, RESOURCE)));
+
+    assertThat(matcher.implies(required, RESOURCE)).isEqualTo(expected);
+    assertThat(matcher.implies(new Wildcard(required, RESOURCE))).isEqualTo(expected);
+  }
+
+  @Test
+  void otherResource() {
+    WildcardMatcher matcher = WildcardMatcher.compile(List.of(new Wildcard("*", RESOURCE)));
+
+    assertThat(matcher.implies("a", RESOURCE)).isTrue();
+    assertThat(matcher.implies("a", "users")).isFalse();
+  }
+
+  @Test
+  void emptyGrants() {
+    assertThat(WildcardMatcher.compile(List.of()).implies("a", RESOURCE)).isFalse();
+    assertThat(WildcardMatcher.compile(List.of(new Wildcard("", RESOURCE))).implies("a", RESOURCE))
+        .isFalse();
+  }
+
+  @Test
+  void manyChildren() {
+    // enough distinct parts under one node to resize its child table several times
+    List<Wildcard> granted = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      granted.add(new Wildcard("p" + i + ":read", RESOURCE));
+      granted.add(new Wildcard("q:" + i, RESOURCE));
+    }
+    WildcardMatcher matcher = WildcardMatcher.compile(granted);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(matcher.implies("p" + i + ":read", RESOURCE)).isTrue();
+      assertThat(matcher.implies("p" + i + ":write", RESOURCE)).isFalse();
+      assertThat(matcher.implies("q:" + i + ":x", RESOURCE)).isTrue();
+    }
+    assertThat(matcher.implies("p100:read", RESOURCE)).isFalse();
+    assertThat(matcher.implies("q:100", RESOURCE)).isFalse();
+  }
+}
@@ -0,0 +1,304 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** the in place parsers must agree with the JDK parsers, invalid values give the default */
+class PrimitiveParserTest {
+
+  private static final String[] INTEGERS = {
+    "0",
+    "-0",
+    "+0",
+    "7",
+    "+7",
+    "-7",
+    "007",
+    "2147483647",
+    "2147483648",
+    "-2147483648",
+    "-2147483649",
+    "9223372036854775807",
+    "9223372036854775808",
+    "-9223372036854775808",
+    "-9223372036854775809",
+    "99999999999999999999",
+    "",
+    "+",
+    "-",
+    "--1",
+    "+-1",
+    "1-",
+    " 1",
+    "1 ",
+    "1.0",
+    "1e3",
+    "0x10",
+    "abc",
+    "١٢",
+    "-١",
+    "１",
+  };
+
+  private static final String[] DECIMALS = {
+    "0",
+    "-0",
+    "0.0",
+    "-0.0",
+    "1",
+    "1.",
+    ".5",
+    "-.5",
+    "+1.5",
+    "3.14159",
+    "0.1",
+    "0.3",
+    "123456.7",
+    "1234567",
+    "16777216",
+    "16777217",
+    "0.0000001",
+    "9007199254740991",
+    "9007199254740993",
+    "0.1234567890123456",
+    "12345678901234567890",
+    "1e10",
+    "1E-5",
+    "-2.5e-3",
+    "Infinity",
+    "-Infinity",
+    "NaN",
+    "1f",
+    "1d",
+    " 1",
+    "",
+    ".",
+    "-",
+    "+",
+    "1..2",
+    "1.2.3",
+    "--1",
+    "abc",
+    "0x1p3",
+  };
+
+  private static final String[] INSTANTS = {
+    "2024-02-18T14:41:29Z",
+    "2024-02-18T14:41:29.273Z",
+    "2024-02-18T14:41:29.1Z",
+    "2024-02-18T14:41:29.123456789Z",
+    "2024-02-18T14:41:29.1234567891Z",
+    "2024-02-18T14:41:29.Z",
+    "2024-02-18T16:41:29+02:00",
+    "2024-02-18T16:41:29.273+02:00",
+    "2024-02-18T12:11:29-02:30",
+    "2024-02-18T14:41:29+00:00",
+    "2024-02-18T14:41:29-00:00",
+    "2024-02-18T14:41:29+18:00",
+    "2024-02-18T14:41:29-18:00",
+    "2024-02-18T14:41:29+18:01",
+    "2024-02-18T14:41:29+19:00",
+    "2024-02-18T14:41:29+02:60",
+    "2024-02-18T14:41:29+0200",
+    "2024-02-18T14:41:29+02",
+    "2024-02-18T14:41:29+02:00:30",
+    "2024-02-29T00:00:00Z",
+    "2023-02-29T00:00:00Z",
+    "2000-02-29T00:00:00Z",
+    "1900-02-29T00:00:00Z",
+    "2024-04-31T00:00:00Z",
+    "2024-12-31T23:59:59Z",
+    "2024-13-01T00:00:00Z",
+    "2024-00-01T00:00:00Z",
+    "2024-01-00T00:00:00Z",
+    "2024-01-01T24:00:00Z",
+    "2024-01-01T23:60:00Z",
+    "2024-06-30T23:59:60Z",
+    "1970-01-01T00:00:00Z",
+    "1969-12-31T23:59:59.999Z",
+    "0000-01-01T00:00:00Z",
+    "9999-12-31T23:59:59Z",
+    "+10000-01-01T00:00:00Z",
+    "2024-02-18t14:41:29z",
+    "2024-02-18 14:41:29Z",
+    "2024-02-18T14:41:29",
+    "2024-02-18",
+    "",
+    "abc",
+  };
+
+  @Test
+  void parseInt() {
+    for (String value : INTEGERS) {
+      assertThat(PrimitiveParser.parseInt(value, 0, value.length(), -42))
+          .as("%s", value)
+          .isEqualTo(jdkInt(value, -42));
+      assertThat(PrimitiveParser.isInt(value, 0, value.length()))
+          .as("%s", value)
+          .isEqualTo(jdkInt(value, -42) != -42);
+    }
+  }
+
+  @Test
+  void parseLong() {
+    for (String value : INTEGERS) {
+      assertThat(PrimitiveParser.parseLong(value, 0, value.length(), -42L))
+          .as("%s", value)
+          .isEqualTo(jdkLong(value, -42L));
+      assertThat(PrimitiveParser.isLong(value, 0, value.length()))
+          .as("%s", value)
+          .isEqualTo(jdkLong(value, -42L) != -42L);
+    }
+  }
+
+  @Test
+  void parseIntegersInRange() {
+    String value = "x=-2147483648&";
+    assertThat(PrimitiveParser.parseInt(value, 2, 13, 0)).isEqualTo(Integer.MIN_VALUE);
+    assertThat(PrimitiveParser.parseLong(value, 2, 13, 0L)).isEqualTo(-2147483648L);
+    assertThat(PrimitiveParser.isInt(value, 2, 13)).isTrue();
+    assertThat(PrimitiveParser.isInt(value, 2, 2)).isFalse();
+  }
+
+  @Test
+  void randomIntegers() {
+    Random random = new Random(42L);
+    for (int i = 0; i < 10_000; i++) {
+      String value =
+          switch (i % 3) {
+            case 0 -> Integer.toString(random.nextInt());
+            case 1 -> Long.toString(random.nextLong());
+            default -> Long.toString(random.nextLong() >> random.nextInt(64));
+          };
+      assertThat(PrimitiveParser.parseInt(value, 0, value.length(), -42))
+          .as("%s", value)
+          .isEqualTo(jdkInt(value, -42));
+      assertThat(PrimitiveParser.parseLong(value, 0, value.length(), -42L))
+          .as("%s", value)
+          .isEqualTo(jdkLong(value, -42L));
+    }
+  }
+
+  @Test
+  void parseFloat() {
+    for (String value : DECIMALS) {
+      assertThat(PrimitiveParser.parseFloat(value, 0, value.length(), -42.5F))
+          .as("%s", value)
+          .isEqualTo(jdkFloat(value, -42.5F));
+    }
+  }
+
+  @Test
+  void parseDouble() {
+    for (String value : DECIMALS) {
+      assertThat(PrimitiveParser.parseDouble(value, 0, value.length(), -42.5))
+          .as("%s", value)
+          .isEqualTo(jdkDouble(value, -42.5));
+    }
+  }
+
+  @Test
+  void randomDecimals() {
+    // covers the exact fast paths and the values just beyond them
+    Random random = new Random(42L);
+    for (int i = 0; i < 100_000; i++) {
+      long mantissa = random.nextLong() >>> random.nextInt(64);
+      int scale = random.nextInt(24);
+      String value = new BigDecimal(mantissa).movePointLeft(scale).toPlainString();
+      if (random.nextBoolean()) {
+        value = "-" + value;
+      }
+
+      assertThat(PrimitiveParser.parseFloat(value, 0, value.length(), -42.5F))
+          .as("%s", value)
+          .isEqualTo(jdkFloat(value, -42.5F));
+      assertThat(PrimitiveParser.parseDouble(value, 0, value.length(), -42.5))
+          .as("%s", value)
+          .isEqualTo(jdkDouble(value, -42.5));
+    }
+  }
+
+  @Test
+  void parseIsoInstant() {
+    for (String value : INSTANTS) {
+      assertThat(PrimitiveParser.parseIsoInstant(value, 0, value.length()))
+          .as("%s", value)
+          .isEqualTo(jdkInstant(value));
+    }
+  }
+
+  @Test
+  void randomIsoInstants() {
+    Random random = new Random(42L);
+    long max = Instant.parse("9999-12-31T23:59:59Z").getEpochSecond();
+    for (int i = 0; i < 10_000; i++) {
+      Instant instant =
+          Instant.ofEpochSecond(random.nextLong(-max, max), random.nextInt(1_000_000_000));
+      String value = instant.toString();
+
+      assertThat(PrimitiveParser.parseIsoInstant(value, 0, value.length()))
+          .as("%s", value)
+          .isEqualTo(jdkInstant(value));
+    }
+  }
+
+  @Test
+  void namedVariantsFail() {
+    assertThatThrownBy(() -> PrimitiveParser.parseInt("id", "x"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("id");
+    assertThatThrownBy(() -> PrimitiveParser.parseLong("id", null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("id");
+    assertThatThrownBy(() -> PrimitiveParser.parseIsoInstant("from", "2023-02-29T00:00:00Z"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("from");
+  }
+
+  private static int jdkInt(String value, int defaultValue) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static long jdkLong(String value, long defaultValue) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static float jdkFloat(String value, float defaultValue) {
+    try {
+      return Float.parseFloat(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static double jdkDouble(String value, double defaultValue) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static Instant jdkInstant(String value) {
+    try {
+      return Instant.parse(value);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.commons.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class QueryScannerTest {
+
+  private static final String[] NAMES = {"a", "b", "a b", "ä", "c"};
+
+  @Test
+  void keyWithoutValue() {
+    assertSameAsDecoder("a");
+    assertSameAsDecoder("a&b=1");
+    assertSameAsDecoder("b=1&a");
+
+    QueryScanner scanner = QueryScanner.scan("a&b=1", NAMES);
+    assertThat(scanner.contains(0)).isTrue();
+    assertThat(scanner.value(0)).isEmpty();
+    assertThat(scanner.parseInt(0, 7)).isEqualTo(7);
+    assertThat(scanner.parseBoolean(0, true)).isFalse();
+  }
+
+  @Test
+  void repeatedKeys() {
+    assertSameAsDecoder("a=1&a=2");
+    assertSameAsDecoder("a=1&b=2&a=3&b=4");
+    assertSameAsDecoder("a&a=2");
+
+    QueryScanner scanner = QueryScanner.scan("a=1&b=2&a=3", NAMES);
+    assertThat(scanner.parseInt(0, "a")).isEqualTo(1);
+  }
+
+  @Test
+  void semicolonSeparator() {
+    assertSameAsDecoder("a=1;b=2");
+    assertSameAsDecoder("a=1;b=2&a=3");
+    assertSameAsDecoder("a;b=1");
+    assertSameAsDecoder("b=x%3By;a=1");
+
+    QueryScanner scanner = QueryScanner.scan("a=1;b=2", NAMES);
+    assertThat(scanner.parseInt(0, "a")).isEqualTo(1);
+    assertThat(scanner.parseInt(1, "b")).isEqualTo(2);
+  }
+
+  @Test
+  void encodedKeysAndValues() {
+    assertSameAsDecoder("a+b=c+d");
+    assertSameAsDecoder("a%20b=c%20d");
+    assertSameAsDecoder("%61=%31%32&b=x%26y");
+    assertSameAsDecoder("%C3%A4=%C3%BC");
+
+    QueryScanner scanner = QueryScanner.scan("%61=%31%32&b=+1&c=%2D1.5", NAMES);
+    assertThat(scanner.parseInt(0, "a")).isEqualTo(12);
+    assertThat(scanner.parseLong(0, "a")).isEqualTo(12L);
+    assertThat(scanner.parseInt(1, 7)).isEqualTo(7);
+    assertThat(scanner.parseDouble(4, "c")).isEqualTo(-1.5D);
+  }
+
+  @Test
+  void emptyValues() {
+    assertSameAsDecoder("a=&b=");
+    assertSameAsDecoder("a=&a=1");
+    assertSameAsDecoder("");
+
+    QueryScanner scanner = QueryScanner.scan("a=&b=", NAMES);
+    assertThat(scanner.value(0)).isEmpty();
+    assertThat(scanner.parseString(1, "default")).isEmpty();
+    assertThat(scanner.parseInt(0, 7)).isEqualTo(7);
+    assertThat(scanner.parseLong(0, 7L)).isEqualTo(7L);
+    assertThatThrownBy(() -> scanner.parseInt(0, "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> scanner.parseDouble(0, "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void literalNaN() {
+    assertSameAsDecoder("c=NaN");
+
+    QueryScanner scanner = QueryScanner.scan("c=NaN&a=nan", NAMES);
+    assertThat(scanner.parseFloat(4, "c")).isNaN();
+    assertThat(scanner.parseDouble(4, "c")).isNaN();
+    assertThat(scanner.parseDouble(4, "c", 1.0D)).isNaN();
+    // only the literal Double.parseDouble accepts
+    assertThatThrownBy(() -> scanner.parseDouble(0, "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> scanner.parseFloat(0, "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void overflowingInts() {
+    String query = "a=2147483648&b=-2147483649&c=9223372036854775808&a b=-2147483648";
+    assertSameAsDecoder(query);
+
+    QueryScanner scanner = QueryScanner.scan(query, NAMES);
+    assertThatThrownBy(() -> scanner.parseInt(0, "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> scanner.parseInt(1, "b"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(scanner.parseInt(0, 7)).isEqualTo(7);
+    assertThat(scanner.parseInt(1, 7)).isEqualTo(7);
+    assertThat(scanner.parseInt(2, "a b")).isEqualTo(Integer.MIN_VALUE);
+
+    assertThat(scanner.parseLong(0, "a")).isEqualTo(2147483648L);
+    assertThat(scanner.parseLong(1, "b")).isEqualTo(-2147483649L);
+    assertThatThrownBy(() -> scanner.parseLong(4, "c"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(scanner.parseLong(4, 7L)).isEqualTo(7L);
+  }
+
+  /** the scanner finds the same first value per name as vert.x does with QueryStringDecoder */
+  private static void assertSameAsDecoder(String query) {
+    Map<String, List<String>> parameters = new QueryStringDecoder(query, false).parameters();
+    QueryScanner scanner = QueryScanner.scan(query, NAMES);
+
+    for (int i = 0; i < NAMES.length; i++) {
+      List<String> values = parameters.get(NAMES[i]);
+      assertThat(scanner.contains(i)).as("%s in %s", NAMES[i], query).isEqualTo(null != values);
+      assertThat(scanner.value(i))
+          .as("%s in %s", NAMES[i], query)
+          .isEqualTo(null == values ? null : values.getFirst());
+    }
+  }
+}
@@ -2,6 +2,7 @@
 package github.benslabbert.vertxdaggercodegen.example.client;
 
 import github.benslabbert.vertxdaggercodegen.annotation.advice.Advised;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.Timed;
 import github.benslabbert.vertxdaggercodegen.example.advice.DependencyB;
 import github.benslabbert.vertxdaggercodegen.example.advice.MeasureAdvice;
 import github.benslabbert.vertxdaggercodegen.example.custom.Custom;
@@ -62,6 +63,7 @@ public class Example {
     return in;
   }
 
+  @Timed
   public int primitiveMethod(int in) {
     System.out.println("primitiveMethod");
     return in;
@@ -3,6 +3,7 @@ package github.benslabbert.vertxdaggercodegen.example.ioc;
 
 import dagger.BindsInstance;
 import dagger.Component;
+import github.benslabbert.vertxdaggercodegen.commons.advice.LatencyRecorder;
 import github.benslabbert.vertxdaggercodegen.example.advice.AdviceModule;
 import github.benslabbert.vertxdaggercodegen.example.advice.DependencyB;
 import github.benslabbert.vertxdaggercodegen.example.advice.MeasureAdvice;
@@ -24,6 +25,8 @@ public interface Provider {
 
   Client client();
 
+  LatencyRecorder latencyRecorder();
+
   String string();
 
   int integer();
@@ -0,0 +1,16 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.example.projection;
+
+import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
+import github.benslabbert.vertxdaggercodegen.annotation.projection.JdbcProjection;
+import java.util.UUID;
+
+@JdbcProjection
+public record Jdbc(
+    @Column(name = "name") String name,
+    String surname,
+    @Column(name = "id_col") long id,
+    int inti,
+    Integer integer,
+    boolean active,
+    UUID uuid) {}
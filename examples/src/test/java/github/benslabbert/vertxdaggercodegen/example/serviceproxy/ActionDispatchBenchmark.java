@@ -0,0 +1,87 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.example.serviceproxy;
+
+import io.vertx.core.MultiMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * measures the dispatch step of the generated EventBusServiceVertxEBProxyHandler on its own, the
+ * action id is read from the message headers and switched on as the handler does for every
+ * message <br>
+ * compares the actionId header sent by current clients against the action header sent by older
+ * clients, which the handler maps to an action id by name
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionDispatchBenchmark {
+
+  private MultiMap[] byActionId;
+  private MultiMap[] byAction;
+  private int next;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ActionDispatchBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    // the headers of a message are a case insensitive multi map
+    byActionId =
+        new MultiMap[] {
+          MultiMap.caseInsensitiveMultiMap()
+              .set("action", "getValues")
+              .set(
+                  "actionId",
+                  Integer.toString(EventBusServiceVertxEBProxyHandler.ACTION_ID_GET_VALUES)),
+          MultiMap.caseInsensitiveMultiMap()
+              .set("action", "getMoreValues")
+              .set(
+                  "actionId",
+                  Integer.toString(EventBusServiceVertxEBProxyHandler.ACTION_ID_GET_MORE_VALUES))
+        };
+    byAction =
+        new MultiMap[] {
+          MultiMap.caseInsensitiveMultiMap().set("action", "getValues"),
+          MultiMap.caseInsensitiveMultiMap().set("action", "getMoreValues")
+        };
+  }
+
+  @Benchmark
+  public int actionId() {
+    return dispatch(byActionId);
+  }
+
+  @Benchmark
+  public int action() {
+    return dispatch(byAction);
+  }
+
+  private int dispatch(MultiMap[] headers) {
+    int i = next;
+    next = (next + 1) % headers.length;
+    return switch (EventBusServiceVertxEBProxyHandler.actionId(headers[i])) {
+      case EventBusServiceVertxEBProxyHandler.ACTION_ID_GET_VALUES -> 1;
+      case EventBusServiceVertxEBProxyHandler.ACTION_ID_GET_MORE_VALUES -> 2;
+      default -> throw new IllegalStateException("unknown action");
+    };
+  }
+}
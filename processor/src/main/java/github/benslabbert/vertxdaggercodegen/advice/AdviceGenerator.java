@@ -2,6 +2,8 @@
 package github.benslabbert.vertxdaggercodegen.advice;
 
 import github.benslabbert.vertxdaggercodegen.annotation.advice.Advised;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodAdvice;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
 import github.benslabbert.vertxdaggercodegen.commons.GenerationException;
 import github.benslabbert.vertxdaggercodegen.commons.TypeWithImports;
 import java.io.IOException;
@@ -9,13 +11,16 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
+import javax.inject.Scope;
 import javax.inject.Singleton;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
@@ -29,6 +34,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Types;
@@ -109,6 +115,12 @@ public class AdviceGenerator extends AbstractProcessor {
             .map(CustomAdvisorAnnotation::advisorCanonicalClassName)
             .collect(Collectors.toSet());
 
+    boolean hasMethodAdvice =
+        Stream.concat(
+                advisors.stream().map(Element::asType).map(TypeMirror::toString),
+                customAnnotationCanonicalNames.stream())
+            .anyMatch(this::isMethodAdvice);
+
     Set<String> canonicalImports =
         getCanonicalImports(superConstructor, methods, advisors).stream()
             .filter(f -> !f.equals("byte"))
@@ -117,6 +129,8 @@ public class AdviceGenerator extends AbstractProcessor {
             .filter(f -> !f.equals("long"))
             .filter(f -> !f.equals("double"))
             .filter(f -> !f.equals("float"))
+            .filter(f -> !f.equals("boolean"))
+            .filter(f -> !f.equals("char"))
             .filter(f -> !f.startsWith("java.lang."))
             .filter(f -> !f.contains("[]"))
             .filter(f -> !f.startsWith(classPackage + "."))
@@ -134,6 +148,10 @@ public class AdviceGenerator extends AbstractProcessor {
         canonicalImports.add("javax.inject.Singleton");
       }
 
+      if (hasMethodAdvice) {
+        canonicalImports.add(MethodId.class.getCanonicalName());
+      }
+
       canonicalImports.add("javax.inject.Inject");
       canonicalImports.add("javax.inject.Provider");
       canonicalImports.addAll(customAnnotationCanonicalNames);
@@ -154,6 +172,14 @@ public class AdviceGenerator extends AbstractProcessor {
       out.printf("class %s extends %s {%n", generatedClassName, superClass);
       out.println();
       out.println("\tprivate static final Class<?> clazz = " + superClass + ".class;");
+      if (hasMethodAdvice) {
+        for (int i = 0; i < methods.size(); i++) {
+          Name methodName = methods.get(i).getSimpleName();
+          out.printf(
+              "\tprivate static final MethodId %s = new MethodId(clazz, \"%s\", %d);%n",
+              methodIdName(methodName, i), methodName, i);
+        }
+      }
       out.println();
       printConstructor(
           out, generatedClassName, superConstructor, advisors, customAnnotationCanonicalNames);
@@ -166,7 +192,8 @@ public class AdviceGenerator extends AbstractProcessor {
   private void printMethods(
       PrintWriter out, List<ExecutableElement> methods, List<Element> advisors) {
 
-    for (ExecutableElement method : methods) {
+    for (int m = 0; m < methods.size(); m++) {
+      ExecutableElement method = methods.get(m);
       List<CustomAdvisorAnnotation> additionalAnnotations = getAdditionalAnnotations(method);
 
       String modifier =
@@ -198,24 +225,44 @@ public class AdviceGenerator extends AbstractProcessor {
               .map(s -> "%s %s".formatted(s.left, s.right))
               .collect(Collectors.joining(", "));
 
+      // checked exceptions of super are rethrown by the catch block, declared fully qualified
+      String throwsClause =
+          method.getThrownTypes().isEmpty()
+              ? ""
+              : method.getThrownTypes().stream()
+                  .map(TypeMirror::toString)
+                  .collect(Collectors.joining(", ", " throws ", ""));
+
+      String signature = modifier + returnType + " " + methodName + "(" + collect + ")";
+
       out.println("\t@Override");
-      out.println("\t" + modifier + returnType + " " + methodName + "(" + collect + ") {");
+      out.println("\t" + signature + throwsClause + " {");
 
       String varList = pairs.stream().map(Pair::right).collect(Collectors.joining(", "));
 
+      String methodId = methodIdName(methodName, m);
       List<String> additionalAdvisors = new ArrayList<>();
+      // advisors implementing MethodAdvice are called with the method id and without varargs
+      List<Boolean> methodAdvisors = new ArrayList<>();
       // call advisors
       for (CustomAdvisorAnnotation additionalAnnotation : additionalAnnotations) {
         String advisor = additionalAnnotation.advisorCanonicalClassName();
+        methodAdvisors.add(isMethodAdvice(advisor));
         String collected =
             additionalAnnotation.customizers.stream()
                 .map(Pair::right)
                 .collect(Collectors.joining(", "));
 
         String adviceGetter = asVariableName(advisor);
-        String variableName = "_" + adviceGetter;
+        String variableName;
 
-        out.println("\t\tvar " + variableName + " = " + adviceGetter + ".get();");
+        if (isScoped(advisor)) {
+          // resolved once in the constructor
+          variableName = adviceGetter;
+        } else {
+          variableName = "_" + adviceGetter;
+          out.println("\t\tvar " + variableName + " = " + adviceGetter + ".get();");
+        }
 
         // customize the advisor
         out.println("\t\t" + variableName + ".customize(" + collected + ");");
@@ -223,24 +270,41 @@ public class AdviceGenerator extends AbstractProcessor {
         additionalAdvisors.add(variableName);
       }
 
-      advisors.stream()
-          .map(Element::asType)
-          .map(TypeMirror::toString)
-          .map(f -> f.substring(f.lastIndexOf(".") + 1))
-          .map(AdviceGenerator::asVariableName)
-          .forEach(additionalAdvisors::add);
+      // scoped advisors are fields, no provider lookup per invocation
+      Set<String> resolvedAdvisors = new HashSet<>(additionalAdvisors);
+      for (Element advisor : advisors) {
+        String f = advisor.asType().toString();
+        String variableName = asVariableName(f.substring(f.lastIndexOf(".") + 1));
+        additionalAdvisors.add(variableName);
+        methodAdvisors.add(isMethodAdvice(f));
+        if (isScoped(f)) {
+          resolvedAdvisors.add(variableName);
+        }
+      }
 
       for (int i = 0; i < additionalAdvisors.size(); i++) {
         String advisorVariable = additionalAdvisors.get(i);
 
-        if (!advisorVariable.startsWith("_")) {
+        if (!resolvedAdvisors.contains(advisorVariable)) {
           String newVar = "_" + advisorVariable;
           out.println("\t\tvar " + newVar + " = " + advisorVariable + ".get();");
           advisorVariable = newVar;
           additionalAdvisors.set(i, advisorVariable);
         }
 
-        if (varList.isEmpty()) {
+        if (methodAdvisors.get(i)) {
+          // per invocation state lives in a local so one advisor instance serves every call
+          out.printf("\t\tlong _state%d = %s.enter(%s);%n", i, advisorVariable, methodId);
+          if (varList.isEmpty()) {
+            out.printf("\t\t%s.before(%s);%n", advisorVariable, methodId);
+          } else if (pairs.size() == 1) {
+            out.printf(
+                "\t\t%s.before(%s, %s%s);%n",
+                advisorVariable, methodId, boxedCast(methodParams.getFirst()), varList);
+          } else {
+            out.printf("\t\t%s.before(%s, %s);%n", advisorVariable, methodId, varList);
+          }
+        } else if (varList.isEmpty()) {
           out.println("\t\t" + advisorVariable + ".before(" + "clazz, \"" + methodName + "\");");
         } else {
           out.println(
@@ -257,35 +321,86 @@ public class AdviceGenerator extends AbstractProcessor {
 
       out.println();
 
-      // call super
-
-      if (!"void".equals(returnType)) {
-        out.println("\t\tvar _res = super." + methodName + "(" + varList + ");");
-        out.println();
-
-        for (String advisorVariable : additionalAdvisors) {
-          out.println(
-              "\t\t" + advisorVariable + ".after(" + "clazz, \"" + methodName + "\", _res);");
-        }
+      List<AdvisorCall> calls = new ArrayList<>();
+      for (int i = 0; i < additionalAdvisors.size(); i++) {
+        String advisorVariable = additionalAdvisors.get(i);
+        calls.add(
+            new AdvisorCall(
+                advisorVariable, methodAdvisors.get(i), methodId, methodName, "_state" + i));
+      }
 
-        out.println();
-        out.println("\t\treturn _res;");
+      // call super, exceptions go to onError and are rethrown
+      boolean isVoid = "void".equals(returnType);
+      if (isVoid) {
+        out.println("\t\ttry {");
+        out.println("\t\t\tsuper." + methodName + "(" + varList + ");");
       } else {
-        // call super and we are done for void methods
-        out.println("\t\tsuper." + methodName + "(" + varList + ");");
+        out.println("\t\t" + returnType + " _res;");
+        out.println("\t\ttry {");
+        out.println("\t\t\t_res = super." + methodName + "(" + varList + ");");
+      }
+      out.println("\t\t} catch (Throwable _t) {");
+      printHooks(out, "\t\t\t", calls, c -> c.onError("_t"));
+      out.println("\t\t\tthrow _t;");
+      out.println("\t\t}");
+      out.println();
+
+      if (isVoid) {
+        printHooks(out, "\t\t", calls, c -> c.after(null));
+        out.println("\t}");
         out.println();
+        continue;
+      }
 
-        for (String advisorVariable : additionalAdvisors) {
-          out.println(
-              "\t\t" + advisorVariable + ".after(" + "clazz, \"" + methodName + "\", null);");
+      Completion completion = getCompletion(method.getReturnType());
+      if (completion == Completion.RETURN) {
+        printHooks(
+            out,
+            "\t\t",
+            calls,
+            c -> c.after(c.methodAdvice() ? boxedCast(returnType) + "_res" : "_res"));
+      } else {
+        // after advice runs once the returned future completes, not when it is returned
+        out.println("\t\tif (_res == null) {");
+        printHooks(out, "\t\t\t", calls, c -> c.after("_res"));
+        out.println("\t\t} else {");
+        if (completion == Completion.FUTURE) {
+          out.println("\t\t\t_res.onComplete(");
+          out.println("\t\t\t\t_ar -> {");
+          out.println("\t\t\t\t\tif (_ar.succeeded()) {");
+        } else {
+          out.println("\t\t\t_res.whenComplete(");
+          out.println("\t\t\t\t(_r, _t) -> {");
+          out.println("\t\t\t\t\tif (_t == null) {");
         }
+        String result = completion == Completion.FUTURE ? "_ar.result()" : "_r";
+        String cause = completion == Completion.FUTURE ? "_ar.cause()" : "_t";
+        printHooks(out, "\t\t\t\t\t\t", calls, c -> c.after(result));
+        out.println("\t\t\t\t\t} else {");
+        printHooks(out, "\t\t\t\t\t\t", calls, c -> c.onError(cause));
+        out.println("\t\t\t\t\t}");
+        out.println("\t\t\t\t});");
+        out.println("\t\t}");
       }
 
+      out.println();
+      out.println("\t\treturn _res;");
       out.println("\t}");
       out.println();
     }
   }
 
+  /** prints the hook of every advisor, MethodAdvice advisors are then given back their state */
+  private static void printHooks(
+      PrintWriter out, String indent, List<AdvisorCall> calls, Function<AdvisorCall, String> hook) {
+    for (AdvisorCall call : calls) {
+      out.println(indent + hook.apply(call));
+      if (call.methodAdvice()) {
+        out.println(indent + call.exit());
+      }
+    }
+  }
+
   private List<CustomAdvisorAnnotation> getAdditionalAnnotations(ExecutableElement method) {
     List<CustomAdvisorAnnotation> list = new ArrayList<>();
 
@@ -367,6 +482,15 @@ public class AdviceGenerator extends AbstractProcessor {
     List<String> additionalAnnotationsParams =
         customAnnotationCanonicalNames.stream().map(AdviceGenerator::getSimpleName).toList();
 
+    // scoped advisors are injected directly, unscoped ones need a new instance per invocation
+    Set<String> scopedParams =
+        Stream.concat(
+                advisors.stream().map(Element::asType).map(TypeMirror::toString),
+                customAnnotationCanonicalNames.stream())
+            .filter(this::isScoped)
+            .map(AdviceGenerator::getSimpleName)
+            .collect(Collectors.toSet());
+
     List<String> superParams =
         getParamsCanonicalClassNames(constructor).stream()
             .map(f -> f.substring(f.lastIndexOf(".") + 1))
@@ -379,10 +503,12 @@ public class AdviceGenerator extends AbstractProcessor {
             .map(f -> f.substring(f.lastIndexOf(".") + 1))
             .toList();
 
-    advisorParams.forEach(
-        s -> out.printf("\tprivate final Provider<%s> %s;%n", s, asVariableName(s)));
-    additionalAnnotationsParams.forEach(
-        s -> out.printf("\tprivate final Provider<%s> %s;%n", s, asVariableName(s)));
+    Stream.of(advisorParams, additionalAnnotationsParams)
+        .flatMap(List::stream)
+        .forEach(
+            s ->
+                out.printf(
+                    "\tprivate final %s %s;%n", advisorType(s, scopedParams), asVariableName(s)));
     out.println();
 
     out.println("\t@Inject");
@@ -402,8 +528,10 @@ public class AdviceGenerator extends AbstractProcessor {
             .flatMap(List::stream)
             .map(
                 f ->
-                    "Provider<%s> %s"
-                        .formatted(f, asVariableName(f) + "_" + index.getAndIncrement()))
+                    "%s %s"
+                        .formatted(
+                            advisorType(f, scopedParams),
+                            asVariableName(f) + "_" + index.getAndIncrement()))
             .collect(Collectors.joining(", "));
 
     String join;
@@ -439,6 +567,71 @@ public class AdviceGenerator extends AbstractProcessor {
     out.printf("\t}%n");
   }
 
+  private static String advisorType(String simpleName, Set<String> scopedParams) {
+    return scopedParams.contains(simpleName) ? simpleName : "Provider<%s>".formatted(simpleName);
+  }
+
+  private boolean isScoped(String canonicalName) {
+    TypeElement advisor = processingEnv.getElementUtils().getTypeElement(canonicalName);
+    if (advisor == null) {
+      return false;
+    }
+
+    return advisor.getAnnotationMirrors().stream()
+        .map(AnnotationMirror::getAnnotationType)
+        .map(DeclaredType::asElement)
+        .anyMatch(annotation -> annotation.getAnnotation(Scope.class) != null);
+  }
+
+  private boolean isMethodAdvice(String canonicalName) {
+    TypeElement advisor = processingEnv.getElementUtils().getTypeElement(canonicalName);
+    TypeElement methodAdvice =
+        processingEnv.getElementUtils().getTypeElement(MethodAdvice.class.getCanonicalName());
+
+    return advisor != null
+        && methodAdvice != null
+        && processingEnv.getTypeUtils().isAssignable(advisor.asType(), methodAdvice.asType());
+  }
+
+  private Completion getCompletion(TypeMirror returnType) {
+    if (returnType.getKind() != TypeKind.DECLARED) {
+      return Completion.RETURN;
+    }
+
+    if (isAssignable(returnType, "io.vertx.core.Future")) {
+      return Completion.FUTURE;
+    }
+
+    if (isAssignable(returnType, "java.util.concurrent.CompletionStage")) {
+      return Completion.COMPLETION_STAGE;
+    }
+
+    return Completion.RETURN;
+  }
+
+  private boolean isAssignable(TypeMirror type, String canonicalName) {
+    TypeElement element = processingEnv.getElementUtils().getTypeElement(canonicalName);
+    if (element == null) {
+      // not on the classpath
+      return false;
+    }
+
+    Types typeUtils = processingEnv.getTypeUtils();
+    return typeUtils.isAssignable(typeUtils.erasure(type), typeUtils.erasure(element.asType()));
+  }
+
+  // there are no hooks for these, keep their boxed type instead of widening to int or double
+  private static String boxedCast(String type) {
+    return switch (type) {
+      case "byte", "short", "char", "float" -> "(Object) ";
+      default -> "";
+    };
+  }
+
+  private static String methodIdName(Name methodName, int index) {
+    return "_" + methodName + "_" + index;
+  }
+
   private static String asVariableName(String name) {
     if (name.contains(".")) {
       name = name.substring(name.lastIndexOf(".") + 1);
@@ -527,6 +720,39 @@ public class AdviceGenerator extends AbstractProcessor {
     throw new GenerationException("expecting MirroredTypesException to be thrown");
   }
 
+  private enum Completion {
+    RETURN,
+    FUTURE,
+    COMPLETION_STAGE
+  }
+
+  private record AdvisorCall(
+      String advisor, boolean methodAdvice, String methodId, Name methodName, String state) {
+
+    String after(String result) {
+      if (methodAdvice) {
+        return null == result
+            ? "%s.after(%s);".formatted(advisor, methodId)
+            : "%s.after(%s, %s);".formatted(advisor, methodId, result);
+      }
+
+      return "%s.after(clazz, \"%s\", %s);"
+          .formatted(advisor, methodName, null == result ? "null" : result);
+    }
+
+    String onError(String throwable) {
+      if (methodAdvice) {
+        return "%s.onError(%s, %s);".formatted(advisor, methodId, throwable);
+      }
+
+      return "%s.onError(clazz, \"%s\", %s);".formatted(advisor, methodName, throwable);
+    }
+
+    String exit() {
+      return "%s.exit(%s, %s);".formatted(advisor, methodId, state);
+    }
+  }
+
   record CustomAdvisorAnnotation(String advisorCanonicalClassName, List<Pair> customizers) {}
 
   record Pair(String left, String right) {}
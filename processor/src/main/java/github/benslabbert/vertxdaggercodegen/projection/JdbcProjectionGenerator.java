@@ -0,0 +1,263 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.projection;
+
+import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
+import github.benslabbert.vertxdaggercodegen.annotation.projection.JdbcProjection;
+import github.benslabbert.vertxdaggercodegen.commons.GenerationException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+/**
+ * generates a java.sql.ResultSet mapper for records <br>
+ * column indexes are resolved once per ResultSet from its ResultSetMetaData, rows are read by index
+ * with the primitive getters and wasNull for boxed types, and the canonical constructor is called
+ * directly <br>
+ * columns missing from the result set leave the component at its default value
+ */
+public class JdbcProjectionGenerator extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Set.of(JdbcProjection.class.getCanonicalName());
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Set.of();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (annotations.isEmpty()) {
+      return false;
+    }
+
+    for (TypeElement annotation : annotations) {
+      Set<? extends Element> annotated = roundEnv.getElementsAnnotatedWith(annotation);
+      for (Element element : annotated) {
+        try {
+          process(element);
+        } catch (Exception e) {
+          throw new GenerationException(e);
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private void process(Element element) throws IOException {
+    if (ElementKind.RECORD != element.getKind()) {
+      throw new GenerationException("JdbcProjection must be a record: " + element);
+    }
+
+    List<MappedField> mappedFields =
+        element.getEnclosedElements().stream()
+            .filter(e -> e.getKind().isField())
+            .filter(e -> !e.getModifiers().contains(Modifier.STATIC))
+            .map(this::processField)
+            .toList();
+
+    String canonicalName = element.asType().toString();
+    String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
+    Name projectionName = element.getSimpleName();
+    String generatedClassName = projectionName + "_JdbcRowMapper";
+
+    JavaFileObject builderFile =
+        processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
+
+    try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+      out.printf("package %s;%n", classPackage);
+      out.println();
+
+      out.println("import java.sql.ResultSet;");
+      out.println("import java.sql.ResultSetMetaData;");
+      out.println("import java.sql.SQLException;");
+      out.println("import java.util.ArrayList;");
+      out.println("import java.util.List;");
+      out.println("import javax.annotation.processing.Generated;");
+      out.println();
+
+      out.printf(
+          "@Generated(value = \"%s\", date = \"%s\")%n",
+          getClass().getCanonicalName(),
+          LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+      out.printf("public final class %s {%n", generatedClassName);
+      out.println();
+
+      // 1 based column index of each field, 0 when the result set does not have the column
+      for (int i = 0; i < mappedFields.size(); i++) {
+        out.printf("\tprivate final int _c%d; // %s%n", i, mappedFields.get(i).columnName());
+      }
+      if (!mappedFields.isEmpty()) {
+        out.println();
+      }
+
+      out.printf(
+          "\tprivate %s(ResultSetMetaData metaData) throws SQLException {%n", generatedClassName);
+      for (int i = 0; i < mappedFields.size(); i++) {
+        out.printf("\t\tint c%d = 0;%n", i);
+      }
+      if (!mappedFields.isEmpty()) {
+        // labels match case insensitive and the first matching column wins, as with findColumn
+        out.println("\t\tfor (int i = metaData.getColumnCount(); i > 0; i--) {");
+        out.println("\t\t\tString label = metaData.getColumnLabel(i);");
+        for (int i = 0; i < mappedFields.size(); i++) {
+          out.printf(
+              "\t\t\tif (\"%s\".equalsIgnoreCase(label)) {%n", mappedFields.get(i).columnName());
+          out.printf("\t\t\t\tc%d = i;%n", i);
+          out.println("\t\t\t}");
+        }
+        out.println("\t\t}");
+      }
+      for (int i = 0; i < mappedFields.size(); i++) {
+        out.printf("\t\tthis._c%d = c%d;%n", i, i);
+      }
+      out.println("\t}");
+      out.println();
+
+      out.println("\t/** resolves the column indexes of the result set */");
+      out.printf(
+          "\tpublic static %s create(ResultSet resultSet) throws SQLException {%n",
+          generatedClassName);
+      out.printf("\t\treturn new %s(resultSet.getMetaData());%n", generatedClassName);
+      out.println("\t}");
+      out.println();
+
+      out.println("\t/** maps all remaining rows */");
+      out.printf(
+          "\tpublic static List<%s> mapAll(ResultSet resultSet) throws SQLException {%n",
+          projectionName);
+      out.printf("\t\t%s mapper = create(resultSet);%n", generatedClassName);
+      out.printf("\t\tList<%s> list = new ArrayList<>();%n", projectionName);
+      out.println("\t\twhile (resultSet.next()) {");
+      out.println("\t\t\tlist.add(mapper.map(resultSet));");
+      out.println("\t\t}");
+      out.println("\t\treturn list;");
+      out.println("\t}");
+      out.println();
+
+      out.println("\t/** maps the current row */");
+      out.printf("\tpublic %s map(ResultSet _resultSet) throws SQLException {%n", projectionName);
+      for (int i = 0; i < mappedFields.size(); i++) {
+        printRead(out, mappedFields.get(i), i);
+      }
+      out.printf(
+          "\t\treturn new %s(%s);%n",
+          projectionName,
+          mappedFields.stream().map(MappedField::name).collect(Collectors.joining(", ")));
+      out.println("\t}");
+
+      out.println("}");
+      out.println();
+    }
+  }
+
+  private static void printRead(PrintWriter out, MappedField mappedField, int index) {
+    String type = mappedField.typeCanonicalName();
+    String name = mappedField.name();
+    String primitive = primitiveType(type);
+
+    if (null == primitive) {
+      out.printf(
+          "\t\t%s %s = 0 == _c%d ? null : _resultSet.%s;%n",
+          type, name, index, getter(mappedField, index));
+      return;
+    }
+
+    if (primitive.equals(type)) {
+      // primitive getters return the default value for null
+      out.printf(
+          "\t\t%s %s = 0 == _c%d ? %s : _resultSet.%s;%n",
+          type, name, index, defaultValue(primitive), getter(mappedField, index));
+      return;
+    }
+
+    out.printf("\t\t%s %s = null;%n", type, name);
+    out.printf("\t\tif (0 != _c%d) {%n", index);
+    out.printf("\t\t\t%s _value = _resultSet.%s;%n", primitive, getter(mappedField, index));
+    out.println("\t\t\tif (!_resultSet.wasNull()) {");
+    out.printf("\t\t\t\t%s = _value;%n", name);
+    out.println("\t\t\t}");
+    out.println("\t\t}");
+  }
+
+  private static String getter(MappedField mappedField, int index) {
+    String type = mappedField.typeCanonicalName();
+    return switch (type) {
+      case "java.lang.String" -> "getString(_c" + index + ")";
+      case "java.lang.Integer", "int" -> "getInt(_c" + index + ")";
+      case "java.lang.Long", "long" -> "getLong(_c" + index + ")";
+      case "java.lang.Boolean", "boolean" -> "getBoolean(_c" + index + ")";
+      case "java.lang.Short", "short" -> "getShort(_c" + index + ")";
+      case "java.lang.Float", "float" -> "getFloat(_c" + index + ")";
+      case "java.lang.Double", "double" -> "getDouble(_c" + index + ")";
+      case "java.math.BigDecimal" -> "getBigDecimal(_c" + index + ")";
+      case "java.util.UUID",
+          "java.time.LocalDate",
+          "java.time.LocalTime",
+          "java.time.LocalDateTime",
+          "java.time.OffsetTime",
+          "java.time.OffsetDateTime" ->
+          "getObject(_c" + index + ", " + type + ".class)";
+      default ->
+          throw new GenerationException(
+              "unsupported type " + type + " for field " + mappedField.name());
+    };
+  }
+
+  private static String primitiveType(String type) {
+    return switch (type) {
+      case "java.lang.Integer", "int" -> "int";
+      case "java.lang.Long", "long" -> "long";
+      case "java.lang.Boolean", "boolean" -> "boolean";
+      case "java.lang.Short", "short" -> "short";
+      case "java.lang.Float", "float" -> "float";
+      case "java.lang.Double", "double" -> "double";
+      default -> null;
+    };
+  }
+
+  private static String defaultValue(String primitive) {
+    return switch (primitive) {
+      case "boolean" -> "false";
+      case "long" -> "0L";
+      case "float" -> "0.0F";
+      case "double" -> "0.0D";
+      default -> "0";
+    };
+  }
+
+  private MappedField processField(Element field) {
+    String fieldName = field.getSimpleName().toString();
+    Column column = field.getAnnotation(Column.class);
+    String columnName = fieldName;
+    if (null != column && !column.name().isEmpty()) {
+      columnName = column.name();
+    }
+
+    String typeCanonicalName = field.asType().toString();
+    return new MappedField(fieldName, columnName, typeCanonicalName);
+  }
+
+  private record MappedField(String name, String columnName, String typeCanonicalName) {}
+}
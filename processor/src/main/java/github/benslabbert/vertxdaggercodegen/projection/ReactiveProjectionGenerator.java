@@ -10,10 +10,14 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.tools.JavaFileObject;
@@ -59,6 +63,7 @@ public class ReactiveProjectionGenerator extends AbstractProcessor {
     List<MappedField> mappedFields =
         elementToBeAdvised.getEnclosedElements().stream()
             .filter(e -> e.getKind().isField())
+            .filter(e -> !e.getModifiers().contains(Modifier.STATIC))
             .map(this::processField)
             .toList();
 
@@ -66,6 +71,7 @@ public class ReactiveProjectionGenerator extends AbstractProcessor {
     String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
     Name projectionName = elementToBeAdvised.getSimpleName();
     String generatedClassName = projectionName + "_ReactiveRowMapper";
+    boolean isRecord = ElementKind.RECORD == elementToBeAdvised.getKind();
 
     JavaFileObject builderFile =
         processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
@@ -74,10 +80,13 @@ public class ReactiveProjectionGenerator extends AbstractProcessor {
       out.printf("package %s;%n", classPackage);
       out.println();
 
+      out.println("import io.vertx.core.Handler;");
+      out.println("import io.vertx.core.streams.ReadStream;");
       out.println("import io.vertx.sqlclient.templates.RowMapper;");
       out.println("import io.vertx.sqlclient.Row;");
+      out.println("import io.vertx.sqlclient.RowSet;");
       out.println("import java.util.stream.Collector;");
-      out.println("import java.util.stream.Collectors;");
+      out.println("import java.util.ArrayList;");
       out.println("import java.util.List;");
       out.println("import javax.annotation.processing.Generated;");
       out.println();
@@ -92,35 +101,293 @@ public class ReactiveProjectionGenerator extends AbstractProcessor {
       out.println();
       out.printf("\t%s INSTANCE = new %s() { };%n", generatedClassName, generatedClassName);
       out.println();
-      out.println(
-          "\tCollector<Row, ?, List<"
-              + projectionName
-              + ">> COLLECTOR = Collectors.mapping(INSTANCE::map, Collectors.toList());");
+      out.println("\tCollector<Row, ?, List<" + projectionName + ">> COLLECTOR = collector(10);");
+      out.println();
+      if (isRecord) {
+        out.println("\tdefault " + projectionName + " map(Row _row) {");
+        printConstruct(
+            out,
+            projectionName,
+            mappedFields,
+            i -> "_row.getColumnIndex(\"" + mappedFields.get(i).columnName() + "\")");
+      } else {
+        out.println("\tdefault " + projectionName + " map(Row row) {");
+        printMap(
+            out,
+            projectionName,
+            mappedFields,
+            i -> "row.getColumnIndex(\"" + mappedFields.get(i).columnName() + "\")");
+      }
+      out.println("\t}");
       out.println();
-      out.println("\tdefault " + projectionName + " map(Row row) {");
 
-      out.printf("\t\t%s.Builder builder = %s.builder();%n", projectionName, projectionName);
-      out.println("\t\tint idx;");
+      out.println("\t/** maps with the column indexes resolved once for the row set */");
+      if (isRecord) {
+        out.println("\tdefault " + projectionName + " map(Row _row, Layout _layout) {");
+        printConstruct(out, projectionName, mappedFields, i -> "_layout.c" + i);
+      } else {
+        out.println("\tdefault " + projectionName + " map(Row row, Layout layout) {");
+        printMap(out, projectionName, mappedFields, i -> "layout.c" + i);
+      }
+      out.println("\t}");
+      out.println();
 
-      for (MappedField mappedField : mappedFields) {
-        out.printf(
-            "\t\tif ((idx = row.getColumnIndex(\"%s\")) != -1) {%n", mappedField.columnName());
+      out.println("\t/** resolves the column indexes once and maps every row by index */");
+      out.printf("\tdefault List<%s> mapAll(RowSet<Row> rowSet) {%n", projectionName);
+      out.println("\t\t// null for statements without a result such as an update");
+      out.println("\t\tList<String> columns = rowSet.columnsNames();");
+      out.println("\t\tLayout layout = null == columns ? null : Layout.of(columns);");
+      out.printf("\t\tList<%s> list = new ArrayList<>(rowSet.size());%n", projectionName);
+      out.println("\t\tfor (Row row : rowSet) {");
+      out.println("\t\t\tif (null == layout) {");
+      out.println("\t\t\t\tlayout = Layout.of(row);");
+      out.println("\t\t\t}");
+      out.println("\t\t\tlist.add(map(row, layout));");
+      out.println("\t\t}");
+      out.println("\t\treturn list;");
+      out.println("\t}");
+      out.println();
 
-        out.printf("\t\t\tvar val = row.%s(idx);%n", getGetter(mappedField));
-        out.println("\t\t\tif (null != val) {");
-        out.println("\t\t\t\tbuilder." + mappedField.name() + "(val);");
-        out.println("\t\t\t}");
-        out.println("\t\t}");
-      }
+      out.println(
+          "\t/** collects into a list presized for the expected number of rows, such as"
+              + " RowSet.size() */");
+      out.printf(
+          "\tstatic Collector<Row, ?, List<%s>> collector(int expectedSize) {%n", projectionName);
+      out.println(
+          "\t\treturn Collector.of("
+              + "() -> new Rows(expectedSize), Rows::add, Rows::combine, Rows::list);");
+      out.println("\t}");
+      out.println();
 
-      out.println("\t\treturn builder.build();");
+      out.println(
+          "\t/** maps a row stream such as a cursor backed RowStream keeping its back pressure */");
+      out.printf("\tdefault ReadStream<%s> mapStream(ReadStream<Row> rows) {%n", projectionName);
+      out.println("\t\treturn new MappedStream(this, rows);");
       out.println("\t}");
+      out.println();
+
+      printRows(out, generatedClassName, projectionName);
+      out.println();
+      printMappedStream(out, generatedClassName, projectionName);
+      out.println();
+      printLayout(out, mappedFields);
 
       out.println("}");
       out.println();
     }
   }
 
+  private static void printMap(
+      PrintWriter out,
+      Name projectionName,
+      List<MappedField> mappedFields,
+      IntFunction<String> columnIndex) {
+    out.printf("\t\t%s.Builder builder = %s.builder();%n", projectionName, projectionName);
+    out.println("\t\tint idx;");
+
+    for (int i = 0; i < mappedFields.size(); i++) {
+      MappedField mappedField = mappedFields.get(i);
+      out.printf("\t\tif ((idx = %s) != -1) {%n", columnIndex.apply(i));
+
+      out.printf("\t\t\tvar val = row.%s(idx);%n", getGetter(mappedField));
+      out.println("\t\t\tif (null != val) {");
+      out.println("\t\t\t\tbuilder." + mappedField.name() + "(val);");
+      out.println("\t\t\t}");
+      out.println("\t\t}");
+    }
+
+    out.println("\t\treturn builder.build();");
+  }
+
+  /** collector state, the layout is resolved from the first row */
+  private static void printRows(PrintWriter out, String generatedClassName, Name projectionName) {
+    out.println("\tfinal class Rows {");
+    out.println();
+    out.printf("\t\tprivate final List<%s> list;%n", projectionName);
+    out.println("\t\tprivate Layout layout;");
+    out.println();
+    out.println("\t\tprivate Rows(int expectedSize) {");
+    out.println("\t\t\tthis.list = new ArrayList<>(expectedSize);");
+    out.println("\t\t}");
+    out.println();
+    out.println("\t\tprivate void add(Row row) {");
+    out.println("\t\t\tif (null == layout) {");
+    out.println("\t\t\t\tlayout = Layout.of(row);");
+    out.println("\t\t\t}");
+    out.printf("\t\t\tlist.add(%s.INSTANCE.map(row, layout));%n", generatedClassName);
+    out.println("\t\t}");
+    out.println();
+    out.println("\t\tprivate Rows combine(Rows other) {");
+    out.println("\t\t\tlist.addAll(other.list);");
+    out.println("\t\t\treturn this;");
+    out.println("\t\t}");
+    out.println();
+    out.printf("\t\tprivate List<%s> list() {%n", projectionName);
+    out.println("\t\t\treturn list;");
+    out.println("\t\t}");
+    out.println("\t}");
+  }
+
+  /**
+   * maps rows as they are emitted, nothing is buffered <br>
+   * pause, resume and fetch go straight to the row stream, the layout is resolved from the first
+   * row
+   */
+  private static void printMappedStream(
+      PrintWriter out, String generatedClassName, Name projectionName) {
+    out.printf("\tfinal class MappedStream implements ReadStream<%s> {%n", projectionName);
+    out.println();
+    out.printf("\t\tprivate final %s mapper;%n", generatedClassName);
+    out.println("\t\tprivate final ReadStream<Row> rows;");
+    out.println("\t\tprivate Layout layout;");
+    out.println();
+    out.printf(
+        "\t\tprivate MappedStream(%s mapper, ReadStream<Row> rows) {%n", generatedClassName);
+    out.println("\t\t\tthis.mapper = mapper;");
+    out.println("\t\t\tthis.rows = rows;");
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\t@Override");
+    out.printf(
+        "\t\tpublic ReadStream<%s> handler(Handler<%s> handler) {%n",
+        projectionName,
+        projectionName);
+    out.println("\t\t\tif (null == handler) {");
+    out.println("\t\t\t\trows.handler(null);");
+    out.println("\t\t\t\treturn this;");
+    out.println("\t\t\t}");
+    out.println();
+    out.println("\t\t\trows.handler(");
+    out.println("\t\t\t\t\trow -> {");
+    out.println("\t\t\t\t\t\tif (null == layout) {");
+    out.println("\t\t\t\t\t\t\tlayout = Layout.of(row);");
+    out.println("\t\t\t\t\t\t}");
+    out.println("\t\t\t\t\t\thandler.handle(mapper.map(row, layout));");
+    out.println("\t\t\t\t\t});");
+    out.println("\t\t\treturn this;");
+    out.println("\t\t}");
+
+    printDelegate(out, projectionName, "exceptionHandler(Handler<Throwable> handler)", "handler");
+    printDelegate(out, projectionName, "endHandler(Handler<Void> endHandler)", "endHandler");
+    printDelegate(out, projectionName, "pause()", "");
+    printDelegate(out, projectionName, "resume()", "");
+    printDelegate(out, projectionName, "fetch(long amount)", "amount");
+    out.println("\t}");
+  }
+
+  private static void printDelegate(
+      PrintWriter out, Name projectionName, String signature, String argument) {
+    out.println();
+    out.println("\t\t@Override");
+    out.printf("\t\tpublic ReadStream<%s> %s {%n", projectionName, signature);
+    out.printf(
+        "\t\t\trows.%s(%s);%n", signature.substring(0, signature.indexOf('(')), argument);
+    out.println("\t\t\treturn this;");
+    out.println("\t\t}");
+  }
+
+  /**
+   * records are built with the canonical constructor from locals named after the components,
+   * generated names start with '_' so they cannot clash <br>
+   * missing columns and null values leave the component at its default value
+   */
+  private static void printConstruct(
+      PrintWriter out,
+      Name projectionName,
+      List<MappedField> mappedFields,
+      IntFunction<String> columnIndex) {
+    out.println("\t\tint _idx;");
+
+    for (int i = 0; i < mappedFields.size(); i++) {
+      MappedField mappedField = mappedFields.get(i);
+      String type = mappedField.typeCanonicalName();
+      String primitiveDefault = primitiveDefault(type);
+
+      if (null == primitiveDefault) {
+        out.printf(
+            "\t\t%s %s = -1 == (_idx = %s) ? null : _row.%s(_idx);%n",
+            type, mappedField.name(), columnIndex.apply(i), getGetter(mappedField));
+        continue;
+      }
+
+      // the row getters are boxed, null leaves the default
+      out.printf("\t\t%s %s = %s;%n", type, mappedField.name(), primitiveDefault);
+      out.printf("\t\tif (-1 != (_idx = %s)) {%n", columnIndex.apply(i));
+      out.printf("\t\t\tvar _val = _row.%s(_idx);%n", getGetter(mappedField));
+      out.println("\t\t\tif (null != _val) {");
+      out.printf("\t\t\t\t%s = _val;%n", mappedField.name());
+      out.println("\t\t\t}");
+      out.println("\t\t}");
+    }
+
+    out.printf(
+        "\t\treturn new %s(%s);%n",
+        projectionName,
+        mappedFields.stream().map(MappedField::name).collect(Collectors.joining(", ")));
+  }
+
+  private static String primitiveDefault(String type) {
+    return switch (type) {
+      case "int", "short" -> "0";
+      case "long" -> "0L";
+      case "boolean" -> "false";
+      case "float" -> "0.0F";
+      case "double" -> "0.0D";
+      default -> null;
+    };
+  }
+
+  /**
+   * the column index of every field, -1 when the row set does not have the column <br>
+   * the last layout is kept and reused while the row sets have the same columns, which they do for
+   * repeated executions of the same query
+   */
+  private static void printLayout(PrintWriter out, List<MappedField> mappedFields) {
+    out.println("\tfinal class Layout {");
+    out.println();
+    out.println("\t\tprivate static volatile Layout last;");
+    out.println();
+    out.println("\t\tprivate final List<String> columns;");
+    for (int i = 0; i < mappedFields.size(); i++) {
+      out.printf("\t\tprivate final int c%d; // %s%n", i, mappedFields.get(i).columnName());
+    }
+    out.println();
+
+    out.println("\t\tprivate Layout(List<String> columns) {");
+    out.println("\t\t\tthis.columns = columns;");
+    for (int i = 0; i < mappedFields.size(); i++) {
+      out.printf(
+          "\t\t\tthis.c%d = columns.indexOf(\"%s\");%n", i, mappedFields.get(i).columnName());
+    }
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\tpublic static Layout of(Row row) {");
+    out.println("\t\t\tList<String> columns = new ArrayList<>(row.size());");
+    out.println("\t\t\tfor (int i = 0; i < row.size(); i++) {");
+    out.println("\t\t\t\tcolumns.add(row.getColumnName(i));");
+    out.println("\t\t\t}");
+    out.println("\t\t\treturn of(columns);");
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\t/** null columns have no index, every field keeps its default */");
+    out.println("\t\tpublic static Layout of(List<String> columns) {");
+    out.println("\t\t\tif (null == columns) {");
+    out.println("\t\t\t\tcolumns = List.of();");
+    out.println("\t\t\t}");
+    out.println();
+    out.println("\t\t\tLayout layout = last;");
+    out.println("\t\t\tif (null == layout || !layout.columns.equals(columns)) {");
+    out.println("\t\t\t\tlayout = new Layout(List.copyOf(columns));");
+    out.println("\t\t\t\tlast = layout;");
+    out.println("\t\t\t}");
+    out.println("\t\t\treturn layout;");
+    out.println("\t\t}");
+    out.println("\t}");
+  }
+
   private static String getGetter(MappedField mappedField) {
     return switch (mappedField.typeCanonicalName()) {
       case "java.lang.String" -> "getString";
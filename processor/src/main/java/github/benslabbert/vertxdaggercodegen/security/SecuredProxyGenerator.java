@@ -8,17 +8,40 @@ import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import javax.tools.JavaFileObject;
 
+/**
+ * generates {@code X_SecuredActions} for a {@link SecuredProxy} interface <br>
+ * the secured actions are built once into a static map, every secured method gets an ordinal
+ * constant and the requirements of all methods are precompiled into a {@code DecisionTable} where
+ * each distinct role, permission and wildcard permission is a bit <br>
+ * {@code X_SecuredProxy} implements the interface, checks the requirement of each secured method
+ * against the granted bits of the caller and delegates, denied calls throw a SecurityException or
+ * return it as a failed future
+ */
 public class SecuredProxyGenerator extends AbstractProcessor {
 
   @Override
@@ -57,9 +80,26 @@ public class SecuredProxyGenerator extends AbstractProcessor {
           "Only interfaces can be annotated with: " + getSupportedAnnotationTypes());
     }
 
-    List<SecuredMethod> securedMethods = getSecuredMethods(elementToBeAdvised);
+    List<SecuredMethod> securedMethods = getSecuredMethods((TypeElement) elementToBeAdvised);
+
+    Set<String> names = new HashSet<>();
+    Set<String> ordinals = new HashSet<>();
+    for (SecuredMethod securedMethod : securedMethods) {
+      if (!names.add(securedMethod.methodName())) {
+        throw new GenerationException(
+            "secured method names must be unique: " + securedMethod.methodName());
+      }
+      if (!ordinals.add(ordinalName(securedMethod.methodName()))) {
+        throw new GenerationException(
+            "secured method ordinal is not unique: " + ordinalName(securedMethod.methodName()));
+      }
+    }
 
     generateFile(elementToBeAdvised, securedMethods);
+
+    if (((TypeElement) elementToBeAdvised).getTypeParameters().isEmpty()) {
+      generateProxy((TypeElement) elementToBeAdvised, securedMethods);
+    }
   }
 
   private void generateFile(Element elementToBeAdvised, List<SecuredMethod> securedMethods)
@@ -77,6 +117,8 @@ public class SecuredProxyGenerator extends AbstractProcessor {
     try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
       out.printf("package %s;%n", classPackage);
       out.println();
+      out.println(
+          "import github.benslabbert.vertxdaggercodegen.commons.security.rpc.DecisionTable;");
       out.println(
           "import github.benslabbert.vertxdaggercodegen.commons.security.rpc.SecuredAction;");
       out.println(
@@ -97,8 +139,17 @@ public class SecuredProxyGenerator extends AbstractProcessor {
       out.printf("public final class %s {%n", generatedClassName);
       out.println();
 
-      out.println("\tpublic static Map<String, SecuredUnion> getSecuredActions() {");
-      out.println("\t\treturn Map.ofEntries(");
+      for (int i = 0; i < securedMethods.size(); i++) {
+        String methodName = securedMethods.get(i).methodName();
+        out.printf("\t/** ordinal of {@code %s} in {@link #DECISIONS} */%n", methodName);
+        out.printf("\tpublic static final int %s = %d;%n", ordinalName(methodName), i);
+        out.println();
+      }
+
+      printDecisions(out, securedMethods);
+
+      out.println(
+          "\tprivate static final Map<String, SecuredUnion> SECURED_ACTIONS = Map.ofEntries(");
       boolean isLast = false;
       for (int i = 0; i < securedMethods.size(); i++) {
         if (i == securedMethods.size() - 1) {
@@ -110,7 +161,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
 
         if (null != securedMethod.securedAction()) {
           out.printf(
-              "\t\t\tMap.entry(\"%s\", SecuredUnion.securedAction(new SecuredAction(\"%s\", \"%s\","
+              "\t\tMap.entry(\"%s\", SecuredUnion.securedAction(new SecuredAction(\"%s\", \"%s\","
                   + " List.of(%s))))%s%n",
               securedMethod.methodName(),
               securedMethod.securedAction().group(),
@@ -125,7 +176,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
 
         if (null != securedMethod.roleBasedPermission()) {
           out.printf(
-              "\t\t\tMap.entry(\"%s\", SecuredUnion.role(new Role(\"%s\", \"%s\")))%s%n",
+              "\t\tMap.entry(\"%s\", SecuredUnion.role(new Role(\"%s\", \"%s\")))%s%n",
               securedMethod.methodName(),
               securedMethod.roleBasedPermission().role(),
               securedMethod.roleBasedPermission().resource(),
@@ -134,7 +185,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
 
         if (null != securedMethod.permissionBasedPermission()) {
           out.printf(
-              "\t\t\tMap.entry(\"%s\", SecuredUnion.permission(new Permission(\"%s\","
+              "\t\tMap.entry(\"%s\", SecuredUnion.permission(new Permission(\"%s\","
                   + " \"%s\")))%s%n",
               securedMethod.methodName(),
               securedMethod.permissionBasedPermission().permission(),
@@ -144,35 +195,329 @@ public class SecuredProxyGenerator extends AbstractProcessor {
 
         if (null != securedMethod.wildcardBasedPermission()) {
           out.printf(
-              "\t\t\tMap.entry(\"%s\", SecuredUnion.wildcard(new Wildcard(\"%s\", \"%s\")))%s%n",
+              "\t\tMap.entry(\"%s\", SecuredUnion.wildcard(new Wildcard(\"%s\", \"%s\")))%s%n",
               securedMethod.methodName(),
               securedMethod.wildcardBasedPermission().permission(),
               securedMethod.wildcardBasedPermission().resource(),
               commaStr);
         }
       }
-      out.println("\t\t);");
+      out.println("\t);");
+      out.println();
+
+      out.println("\tpublic static Map<String, SecuredUnion> getSecuredActions() {");
+      out.println("\t\treturn SECURED_ACTIONS;");
       out.println("\t}");
       out.println("}");
     }
   }
 
-  private static List<SecuredMethod> getSecuredMethods(Element elementToBeAdvised) {
-    List<SecuredMethod> securedMethods = new ArrayList<>();
+  private void generateProxy(TypeElement elementToBeAdvised, List<SecuredMethod> securedMethods)
+      throws IOException {
+
+    String canonicalName = elementToBeAdvised.asType().toString();
+    String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
+    Name superClass = elementToBeAdvised.getSimpleName();
+
+    String actionsClassName = superClass + "_SecuredActions";
+    String generatedClassName = superClass + "_SecuredProxy";
+
+    // every abstract method must be implemented, default methods only when they are secured
+    List<? extends Element> members =
+        processingEnv.getElementUtils().getAllMembers(elementToBeAdvised);
+    List<ExecutableElement> methods =
+        ElementFilter.methodsIn(members).stream()
+            .filter(m -> !m.getModifiers().contains(Modifier.STATIC))
+            .filter(
+                m ->
+                    m.getModifiers().contains(Modifier.ABSTRACT)
+                        || securedMethods.stream().anyMatch(sm -> sm.method().equals(m)))
+            .toList();
+
+    JavaFileObject builderFile =
+        processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
+
+    try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+      out.printf("package %s;%n", classPackage);
+      out.println();
+      out.println("import java.util.function.Supplier;");
+      out.println("import javax.annotation.processing.Generated;");
+      out.println();
+
+      out.printf(
+          "@Generated(value = \"%s\", date = \"%s\")%n",
+          getClass().getCanonicalName(),
+          LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+      out.printf("public final class %s implements %s {%n", generatedClassName, superClass);
+      out.println();
+
+      out.printf("\tprivate final %s _delegate;%n", superClass);
+      out.println("\tprivate final Supplier<long[]> _granted;");
+      out.println();
+
+      out.println("\t/**");
+      out.println("\t * @param delegate the secured implementation");
+      out.printf(
+          "\t * @param granted the bits granted to the caller by {@code %s.DECISIONS.grant}%n",
+          actionsClassName);
+      out.println("\t */");
+      out.printf(
+          "\tpublic %s(%s delegate, Supplier<long[]> granted) {%n",
+          generatedClassName, superClass);
+      out.println("\t\tthis._delegate = delegate;");
+      out.println("\t\tthis._granted = granted;");
+      out.println("\t}");
+
+      for (ExecutableElement method : methods) {
+        SecuredMethod securedMethod =
+            securedMethods.stream()
+                .filter(sm -> sm.method().equals(method))
+                .findFirst()
+                .orElse(null);
+        // inherited methods of generic super interfaces with their type arguments applied
+        ExecutableType methodType =
+            (ExecutableType)
+                processingEnv
+                    .getTypeUtils()
+                    .asMemberOf((DeclaredType) elementToBeAdvised.asType(), method);
+        out.println();
+        printProxyMethod(out, method, methodType, securedMethod, actionsClassName);
+      }
+
+      out.println("}");
+    }
+  }
+
+  private void printProxyMethod(
+      PrintWriter out,
+      ExecutableElement method,
+      ExecutableType methodType,
+      SecuredMethod securedMethod,
+      String actionsClassName) {
+
+    String methodName = method.getSimpleName().toString();
+    List<? extends VariableElement> parameters = method.getParameters();
+
+    List<String> params = new ArrayList<>(parameters.size());
+    for (int i = 0; i < parameters.size(); i++) {
+      String type = methodType.getParameterTypes().get(i).toString();
+      if (method.isVarArgs() && i == parameters.size() - 1) {
+        type = type.substring(0, type.length() - 2) + "...";
+      }
+      params.add(type + " " + parameters.get(i).getSimpleName());
+    }
+    String args =
+        String.join(", ", parameters.stream().map(p -> p.getSimpleName().toString()).toList());
+
+    String typeParameters = "";
+    if (!method.getTypeParameters().isEmpty()) {
+      typeParameters =
+          "<"
+              + String.join(
+                  ", ", method.getTypeParameters().stream().map(this::typeParameter).toList())
+              + "> ";
+    }
+
+    String throwsClause = "";
+    if (!methodType.getThrownTypes().isEmpty()) {
+      throwsClause =
+          " throws "
+              + String.join(
+                  ", ", methodType.getThrownTypes().stream().map(TypeMirror::toString).toList());
+    }
+
+    TypeMirror returnType = methodType.getReturnType();
+    boolean isVoid = TypeKind.VOID == returnType.getKind();
+
+    out.println("\t@Override");
+    out.printf(
+        "\tpublic %s%s %s(%s)%s {%n",
+        typeParameters, returnType, methodName, String.join(", ", params), throwsClause);
+
+    if (null != securedMethod) {
+      String ordinal = actionsClassName + "." + ordinalName(methodName);
+      out.printf(
+          "\t\tif (!%s.DECISIONS.isAllowed(%s, _granted.get())) {%n", actionsClassName, ordinal);
+      String denied = "new SecurityException(\"access denied: %s\")".formatted(methodName);
+      if (isExactly(returnType, "io.vertx.core.Future")) {
+        out.printf("\t\t\treturn io.vertx.core.Future.failedFuture(%s);%n", denied);
+      } else if (isExactly(returnType, "java.util.concurrent.CompletionStage")
+          || isExactly(returnType, "java.util.concurrent.CompletableFuture")) {
+        out.printf(
+            "\t\t\treturn java.util.concurrent.CompletableFuture.failedFuture(%s);%n", denied);
+      } else {
+        out.printf("\t\t\tthrow %s;%n", denied);
+      }
+      out.println("\t\t}");
+    }
+
+    if (isVoid) {
+      out.printf("\t\t_delegate.%s(%s);%n", methodName, args);
+    } else {
+      out.printf("\t\treturn _delegate.%s(%s);%n", methodName, args);
+    }
+    out.println("\t}");
+  }
+
+  private String typeParameter(TypeParameterElement typeParameter) {
+    List<String> bounds =
+        typeParameter.getBounds().stream()
+            .map(TypeMirror::toString)
+            .filter(b -> !"java.lang.Object".equals(b))
+            .toList();
+    return bounds.isEmpty()
+        ? typeParameter.getSimpleName().toString()
+        : typeParameter.getSimpleName() + " extends " + String.join(" & ", bounds);
+  }
 
-    elementToBeAdvised.getEnclosedElements().stream()
-        .filter(e -> ElementKind.METHOD == e.getKind())
-        .forEach(
-            e -> {
-              addSecuredAction(e, securedMethods);
-              addRole(e, securedMethods);
-              addPermission(e, securedMethods);
-              addWildcard(e, securedMethods);
-            });
+  private boolean isExactly(TypeMirror type, String canonicalName) {
+    TypeElement element = processingEnv.getElementUtils().getTypeElement(canonicalName);
+    if (null == element || TypeKind.DECLARED != type.getKind()) {
+      return false;
+    }
+
+    Types typeUtils = processingEnv.getTypeUtils();
+    return typeUtils.isSameType(typeUtils.erasure(type), typeUtils.erasure(element.asType()));
+  }
+
+  private static void printDecisions(PrintWriter out, List<SecuredMethod> securedMethods) {
+    // every distinct requirement is a bit in first seen order: roles, permissions, wildcards
+    Map<SecuredMethod.RoleBasedPermission, Integer> roles = new LinkedHashMap<>();
+    Map<SecuredMethod.PermissionBasedPermission, Integer> permissions = new LinkedHashMap<>();
+    Map<SecuredMethod.WildcardBasedPermission, Integer> wildcards = new LinkedHashMap<>();
+    for (SecuredMethod securedMethod : securedMethods) {
+      securedMethod.requiredRoles().forEach(r -> roles.putIfAbsent(r, roles.size()));
+      securedMethod
+          .requiredPermissions()
+          .forEach(p -> permissions.putIfAbsent(p, permissions.size()));
+      securedMethod.requiredWildcards().forEach(w -> wildcards.putIfAbsent(w, wildcards.size()));
+    }
+
+    int bits = roles.size() + permissions.size() + wildcards.size();
+    int words = Math.max(1, (bits + 63) >>> 6);
+
+    out.println("\tpublic static final DecisionTable DECISIONS =");
+    out.println("\t\t\tnew DecisionTable(");
+    out.printf(
+        "\t\t\t\t\tList.of(%s),%n",
+        String.join(
+            ", ",
+            roles.keySet().stream()
+                .map(r -> "new Role(\"%s\", \"%s\")".formatted(r.role(), r.resource()))
+                .toList()));
+    out.printf(
+        "\t\t\t\t\tList.of(%s),%n",
+        String.join(
+            ", ",
+            permissions.keySet().stream()
+                .map(
+                    p -> "new Permission(\"%s\", \"%s\")".formatted(p.permission(), p.resource()))
+                .toList()));
+    out.printf(
+        "\t\t\t\t\tList.of(%s),%n",
+        String.join(
+            ", ",
+            wildcards.keySet().stream()
+                .map(w -> "new Wildcard(\"%s\", \"%s\")".formatted(w.permission(), w.resource()))
+                .toList()));
+    out.println("\t\t\t\t\tnew long[][] {");
+    for (int i = 0; i < securedMethods.size(); i++) {
+      SecuredMethod securedMethod = securedMethods.get(i);
+      long[] required = new long[words];
+      securedMethod.requiredRoles().forEach(r -> set(required, roles.get(r)));
+      securedMethod
+          .requiredPermissions()
+          .forEach(p -> set(required, roles.size() + permissions.get(p)));
+      securedMethod
+          .requiredWildcards()
+          .forEach(w -> set(required, roles.size() + permissions.size() + wildcards.get(w)));
+
+      List<String> literals = new ArrayList<>(words);
+      for (long word : required) {
+        literals.add("0x%xL".formatted(word));
+      }
+      out.printf(
+          "\t\t\t\t\t\t{%s}%s // %s%n",
+          String.join(", ", literals),
+          i == securedMethods.size() - 1 ? "" : ",",
+          securedMethod.methodName());
+    }
+    out.println("\t\t\t\t\t});");
+    out.println();
+  }
+
+  private static void set(long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
 
+  /** testMethod becomes ORDINAL_TEST_METHOD, the prefix keeps it apart from the other constants */
+  private static String ordinalName(String methodName) {
+    StringBuilder sb = new StringBuilder(methodName.length() + 12).append("ORDINAL_");
+    for (int i = 0; i < methodName.length(); i++) {
+      char c = methodName.charAt(i);
+      if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(methodName.charAt(i - 1))) {
+        sb.append('_');
+      }
+      sb.append(Character.toUpperCase(c));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * the secured methods declared by the interface followed by those inherited from its super
+   * interfaces, an inherited method that is overridden is only secured by the override <br>
+   * an override dropping the annotations of a secured method fails generation instead of leaving
+   * the method unchecked
+   */
+  private List<SecuredMethod> getSecuredMethods(TypeElement type) {
+    List<ExecutableElement> methods = new ArrayList<>();
+    collectMethods(type, type, methods);
+
+    List<SecuredMethod> securedMethods = new ArrayList<>();
+    for (ExecutableElement method : methods) {
+      addSecuredAction(method, securedMethods);
+      addRole(method, securedMethods);
+      addPermission(method, securedMethods);
+      addWildcard(method, securedMethods);
+    }
     return securedMethods;
   }
 
+  private void collectMethods(
+      TypeElement type, TypeElement current, List<ExecutableElement> methods) {
+    Elements elementUtils = processingEnv.getElementUtils();
+
+    for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+      if (method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+
+      ExecutableElement override =
+          methods.stream()
+              .filter(m -> m.equals(method) || elementUtils.overrides(m, method, type))
+              .findFirst()
+              .orElse(null);
+      if (null == override) {
+        methods.add(method);
+      } else if (!override.equals(method) && isSecured(method) && !isSecured(override)) {
+        throw new GenerationException(
+            "%s overrides the secured method %s.%s without its security annotation"
+                .formatted(override, current.getSimpleName(), method));
+      }
+    }
+
+    for (TypeMirror superInterface : current.getInterfaces()) {
+      collectMethods(type, (TypeElement) ((DeclaredType) superInterface).asElement(), methods);
+    }
+  }
+
+  private static boolean isSecured(Element e) {
+    return null != e.getAnnotation(SecuredProxy.SecuredAction.class)
+        || null != e.getAnnotation(SecuredProxy.RoleBasedPermission.class)
+        || null != e.getAnnotation(SecuredProxy.PermissionBasedPermission.class)
+        || null != e.getAnnotation(SecuredProxy.WildcardBasedPermission.class);
+  }
+
   private static void addSecuredAction(Element e, List<SecuredMethod> securedMethods) {
     var annotation = e.getAnnotation(SecuredProxy.SecuredAction.class);
     if (null == annotation) {
@@ -180,6 +525,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
     }
     SecuredMethod sm =
         new SecuredMethod(
+            e,
             e.getSimpleName().toString(),
             new SecuredMethod.SecuredAction(
                 annotation.group(), annotation.role(), List.of(annotation.permissions())),
@@ -196,6 +542,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
     }
     SecuredMethod sm =
         new SecuredMethod(
+            e,
             e.getSimpleName().toString(),
             null,
             new SecuredMethod.RoleBasedPermission(annotation.role(), annotation.resource()),
@@ -211,6 +558,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
     }
     SecuredMethod sm =
         new SecuredMethod(
+            e,
             e.getSimpleName().toString(),
             null,
             null,
@@ -227,6 +575,7 @@ public class SecuredProxyGenerator extends AbstractProcessor {
     }
     SecuredMethod sm =
         new SecuredMethod(
+            e,
             e.getSimpleName().toString(),
             null,
             null,
@@ -237,12 +586,35 @@ public class SecuredProxyGenerator extends AbstractProcessor {
   }
 
   private record SecuredMethod(
+      Element method,
       String methodName,
       SecuredAction securedAction,
       RoleBasedPermission roleBasedPermission,
       PermissionBasedPermission permissionBasedPermission,
       WildcardBasedPermission wildcardBasedPermission) {
 
+    /** a secured action requires its role with the group as resource */
+    List<RoleBasedPermission> requiredRoles() {
+      if (null != securedAction) {
+        return List.of(new RoleBasedPermission(securedAction.role(), securedAction.group()));
+      }
+      return null == roleBasedPermission ? List.of() : List.of(roleBasedPermission);
+    }
+
+    /** a secured action requires all of its permissions with the group as resource */
+    List<PermissionBasedPermission> requiredPermissions() {
+      if (null != securedAction) {
+        return securedAction.permissions().stream()
+            .map(p -> new PermissionBasedPermission(p, securedAction.group()))
+            .toList();
+      }
+      return null == permissionBasedPermission ? List.of() : List.of(permissionBasedPermission);
+    }
+
+    List<WildcardBasedPermission> requiredWildcards() {
+      return null == wildcardBasedPermission ? List.of() : List.of(wildcardBasedPermission);
+    }
+
     record SecuredAction(String group, String role, List<String> permissions) {}
 
     record RoleBasedPermission(String role, String resource) {}
@@ -0,0 +1,181 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.serviceproxy;
+
+import java.io.PrintWriter;
+import java.util.List;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+
+final class MessageCodecWriter {
+
+  private MessageCodecWriter() {}
+
+  static String codecName(TypeElement type) {
+    return type.getSimpleName() + "Codec";
+  }
+
+  /** records with only primitive, boxed primitive or String components */
+  static boolean isImmutable(TypeElement type) {
+    return type.getKind() == ElementKind.RECORD
+        && type.getRecordComponents().stream().allMatch(c -> isSupported(c.asType().toString()));
+  }
+
+  static void write(PrintWriter out, TypeElement type) {
+    String simpleName = type.getSimpleName().toString();
+    String codecName = codecName(type);
+
+    List<? extends RecordComponentElement> components =
+        type.getKind() == ElementKind.RECORD ? type.getRecordComponents() : List.of();
+    boolean binary = isImmutable(type);
+
+    out.printf(
+        "\tstatic final class %s implements MessageCodec<%s, %s> {%n",
+        codecName, simpleName, simpleName);
+    out.println();
+
+    out.println("\t\t@Override");
+    out.printf("\t\tpublic void encodeToWire(Buffer buffer, %s o) {%n", simpleName);
+    if (binary) {
+      for (RecordComponentElement component : components) {
+        printEncode(out, component.asType().toString(), "o." + component.getSimpleName() + "()");
+      }
+    } else {
+      out.println("\t\t\tBuffer _json = o.toJson().toBuffer();");
+      out.println("\t\t\tbuffer.appendInt(_json.length());");
+      out.println("\t\t\tbuffer.appendBuffer(_json);");
+    }
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\t@Override");
+    out.printf("\t\tpublic %s decodeFromWire(int pos, Buffer buffer) {%n", simpleName);
+    if (binary) {
+      if (!components.isEmpty()) {
+        out.println("\t\t\tint _pos = pos;");
+      }
+      for (RecordComponentElement component : components) {
+        printDecode(out, component.asType().toString(), "_" + component.getSimpleName());
+      }
+      out.printf(
+          "\t\t\treturn new %s(%s);%n",
+          simpleName,
+          String.join(", ", components.stream().map(c -> "_" + c.getSimpleName()).toList()));
+    } else {
+      out.println("\t\t\tint _len = buffer.getInt(pos);");
+      out.printf(
+          "\t\t\treturn %s.fromJson(new JsonObject(buffer.getBuffer(pos + 4, pos + 4 + _len)));%n",
+          simpleName);
+    }
+    out.println("\t\t}");
+    out.println();
+
+    // only immutable records are shared on local delivery, everything else is copied so sender and
+    // receiver do not share mutable state such as a list component
+    out.println("\t\t@Override");
+    out.printf("\t\tpublic %s transform(%s o) {%n", simpleName, simpleName);
+    if (binary) {
+      out.println("\t\t\treturn o;");
+    } else {
+      out.printf("\t\t\treturn %s.fromJson(o.toJson());%n", simpleName);
+    }
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\t@Override");
+    out.println("\t\tpublic String name() {");
+    out.printf("\t\t\treturn \"%s\";%n", type.getQualifiedName());
+    out.println("\t\t}");
+    out.println();
+
+    out.println("\t\t@Override");
+    out.println("\t\tpublic byte systemCodecID() {");
+    out.println("\t\t\treturn -1;");
+    out.println("\t\t}");
+    out.println("\t}");
+    out.println();
+  }
+
+  private static boolean isSupported(String type) {
+    return "java.lang.String".equals(type) || null != primitive(type);
+  }
+
+  private static void printEncode(PrintWriter out, String type, String accessor) {
+    if ("java.lang.String".equals(type)) {
+      out.printf("\t\t\tif (null == %s) {%n", accessor);
+      out.println("\t\t\t\tbuffer.appendInt(-1);");
+      out.println("\t\t\t} else {");
+      out.printf("\t\t\t\tbyte[] _bytes = %s.getBytes(StandardCharsets.UTF_8);%n", accessor);
+      out.println("\t\t\t\tbuffer.appendInt(_bytes.length);");
+      out.println("\t\t\t\tbuffer.appendBytes(_bytes);");
+      out.println("\t\t\t}");
+      return;
+    }
+
+    Primitive primitive = primitive(type);
+    if (type.startsWith("java.lang.")) {
+      out.printf("\t\t\tif (null == %s) {%n", accessor);
+      out.println("\t\t\t\tbuffer.appendByte((byte) 0);");
+      out.println("\t\t\t} else {");
+      out.println("\t\t\t\tbuffer.appendByte((byte) 1);");
+      out.printf("\t\t\t\tbuffer.%s;%n", primitive.append(accessor));
+      out.println("\t\t\t}");
+      return;
+    }
+
+    out.printf("\t\t\tbuffer.%s;%n", primitive.append(accessor));
+  }
+
+  private static void printDecode(PrintWriter out, String type, String name) {
+    if ("java.lang.String".equals(type)) {
+      out.printf("\t\t\tString %s = null;%n", name);
+      out.printf("\t\t\tint %sLen = buffer.getInt(_pos);%n", name);
+      out.println("\t\t\t_pos += 4;");
+      out.printf("\t\t\tif (%sLen != -1) {%n", name);
+      out.printf(
+          "\t\t\t\t%s = buffer.getString(_pos, _pos + %sLen, \"UTF-8\");%n", name, name);
+      out.printf("\t\t\t\t_pos += %sLen;%n", name);
+      out.println("\t\t\t}");
+      return;
+    }
+
+    Primitive primitive = primitive(type);
+    if (type.startsWith("java.lang.")) {
+      out.printf("\t\t\t%s %s = null;%n", type.substring("java.lang.".length()), name);
+      out.println("\t\t\tif (buffer.getByte(_pos++) != 0) {");
+      out.printf("\t\t\t\t%s = %s;%n", name, primitive.get());
+      out.printf("\t\t\t\t_pos += %d;%n", primitive.size());
+      out.println("\t\t\t}");
+      return;
+    }
+
+    out.printf("\t\t\t%s %s = %s;%n", type, name, primitive.get());
+    out.printf("\t\t\t_pos += %d;%n", primitive.size());
+  }
+
+  private static Primitive primitive(String type) {
+    return switch (type) {
+      case "int", "java.lang.Integer" -> new Primitive("appendInt(%s)", "buffer.getInt(_pos)", 4);
+      case "long", "java.lang.Long" -> new Primitive("appendLong(%s)", "buffer.getLong(_pos)", 8);
+      case "short", "java.lang.Short" ->
+          new Primitive("appendShort(%s)", "buffer.getShort(_pos)", 2);
+      case "byte", "java.lang.Byte" -> new Primitive("appendByte(%s)", "buffer.getByte(_pos)", 1);
+      case "float", "java.lang.Float" ->
+          new Primitive("appendFloat(%s)", "buffer.getFloat(_pos)", 4);
+      case "double", "java.lang.Double" ->
+          new Primitive("appendDouble(%s)", "buffer.getDouble(_pos)", 8);
+      case "boolean", "java.lang.Boolean" ->
+          new Primitive("appendByte((byte) (%s ? 1 : 0))", "buffer.getByte(_pos) != 0", 1);
+      case "char", "java.lang.Character" ->
+          new Primitive("appendShort((short) (char) %s)", "(char) buffer.getShort(_pos)", 2);
+      default -> null;
+    };
+  }
+
+  private record Primitive(String appendFormat, String get, int size) {
+
+    String append(String accessor) {
+      return appendFormat.formatted(accessor);
+    }
+  }
+}
@@ -8,7 +8,11 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,10 +26,18 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
 import javax.tools.JavaFileObject;
 
 public class ServiceProxyGenerator extends AbstractProcessor {
 
+  private static final String BATCH_ACTION = "__batch";
+  private static final int BATCH_ACTION_ID = -1;
+  private static final String READ_STREAM = "io.vertx.core.streams.ReadStream";
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -64,11 +76,169 @@ public class ServiceProxyGenerator extends AbstractProcessor {
   private void process(Element serviceClassElement) throws IOException {
     System.err.println("Processing element: " + serviceClassElement);
 
-    processClient(serviceClassElement);
-    processServer(serviceClassElement);
+    GenerateProxies generateProxies = serviceClassElement.getAnnotation(GenerateProxies.class);
+
+    if (generateProxies.codec()) {
+      processCodecs(serviceClassElement);
+    }
+
+    checkActionIds(getMethodsToOverride(serviceClassElement));
+
+    processClient(serviceClassElement, generateProxies);
+    processServer(serviceClassElement, generateProxies);
+
+    if (generateProxies.batch()) {
+      processBatchingClient(serviceClassElement, generateProxies);
+    }
+  }
+
+  private void processCodecs(Element serviceClassElement) throws IOException {
+    System.err.println("Codec mode enabled");
+
+    Types typeUtils = processingEnv.getTypeUtils();
+
+    // request and response types, deduplicated and in declaration order
+    Map<String, TypeElement> types = new LinkedHashMap<>();
+    for (ExecutableElement method : getMethodsToOverride(serviceClassElement)) {
+      if (method.getParameters().size() != 1) {
+        throw new GenerationException("Method must have exactly one parameter");
+      }
+
+      TypeMirror requestType = method.getParameters().getFirst().asType();
+      if (requestType.getKind() != TypeKind.DECLARED) {
+        throw new GenerationException("Method parameter must be a declared type");
+      }
+
+      TypeElement requestElement = (TypeElement) typeUtils.asElement(requestType);
+      types.putIfAbsent(requestElement.getQualifiedName().toString(), requestElement);
+
+      // stream items are always sent as json
+      if (!isStream(method)
+          && method.getReturnType() instanceof DeclaredType dt
+          && dt.getTypeArguments().size() == 1) {
+        TypeMirror responseType = dt.getTypeArguments().getFirst();
+        if (responseType.getKind() == TypeKind.DECLARED) {
+          TypeElement responseElement = (TypeElement) typeUtils.asElement(responseType);
+          types.putIfAbsent(responseElement.getQualifiedName().toString(), responseElement);
+        }
+      }
+    }
+
+    // codecs are nested classes named after the simple name, which is also imported
+    Map<String, String> simpleNames = new HashMap<>();
+    for (TypeElement type : types.values()) {
+      String qualifiedName = type.getQualifiedName().toString();
+      String other = simpleNames.putIfAbsent(MessageCodecWriter.codecName(type), qualifiedName);
+      if (null != other) {
+        throw new GenerationException(
+            "Codec types must have unique simple names: " + other + ", " + qualifiedName);
+      }
+    }
+
+    String canonicalName = serviceClassElement.asType().toString();
+    String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
+    String generatedClassName = serviceClassElement.getSimpleName() + "VertxEBCodecs";
+
+    JavaFileObject builderFile =
+        processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
+
+    try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+      out.printf("package %s;%n", classPackage);
+      out.println();
+
+      types.keySet().stream()
+          .filter(f -> !f.startsWith("java.lang."))
+          .forEach(anImport -> out.printf("import %s;%n", anImport));
+      out.println("import io.vertx.core.Vertx;");
+      out.println("import io.vertx.core.buffer.Buffer;");
+      out.println("import io.vertx.core.eventbus.MessageCodec;");
+      out.println("import io.vertx.core.json.JsonObject;");
+      out.println("import java.nio.charset.StandardCharsets;");
+      out.println("import javax.annotation.processing.Generated;");
+      out.println();
+
+      out.printf(
+          "@Generated(value = \"%s\", date = \"%s\")%n",
+          getClass().getCanonicalName(),
+          LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+      out.printf("public final class %s {%n", generatedClassName);
+      out.println();
+      out.printf("\tprivate %s() {}%n", generatedClassName);
+      out.println();
+
+      out.println("\tpublic static void register(Vertx vertx) {");
+      for (TypeElement type : types.values()) {
+        out.printf(
+            "\t\tregister(vertx, %s.class, new %s());%n",
+            type.getSimpleName(), MessageCodecWriter.codecName(type));
+      }
+      out.println("\t}");
+      out.println();
+
+      out.println(
+          "\tprivate static <T> void register(Vertx vertx, Class<T> type, MessageCodec<T, T>"
+              + " codec) {");
+      out.println("\t\ttry {");
+      out.println("\t\t\tvertx.eventBus().registerDefaultCodec(type, codec);");
+      out.println("\t\t} catch (IllegalStateException ex) {");
+      out.println("\t\t\t// ignore, already registered by another client or handler");
+      out.println("\t\t}");
+      out.println("\t}");
+      out.println();
+
+      for (TypeElement type : types.values()) {
+        MessageCodecWriter.write(out, type);
+      }
+
+      out.println("}");
+    }
   }
 
-  private void processClient(Element serviceClassElement) throws IOException {
+  private static List<ExecutableElement> getMethodsToOverride(Element serviceClassElement) {
+    return serviceClassElement.getEnclosedElements().stream()
+        .filter(e -> e.getKind() == ElementKind.METHOD)
+        .filter(e -> !e.getModifiers().contains(Modifier.DEFAULT))
+        .map(e -> (ExecutableElement) e)
+        .toList();
+  }
+
+  private static Set<String> getClientImports(List<ExecutableElement> methodsToOverride) {
+    return methodsToOverride.stream()
+        .map(
+            e -> {
+              var rt = TypeWithImports.of(e.getReturnType());
+              if (!rt.canonicalImports().contains("io.vertx.core.Future") && !isStream(e)) {
+                throw new GenerationException(
+                    "Method return type must be io.vertx.core.Future or " + READ_STREAM);
+              }
+
+              List<? extends VariableElement> parameters = e.getParameters();
+
+              if (parameters.size() != 1) {
+                throw new GenerationException("Method must have exactly one parameter");
+              }
+
+              Stream<String> paramImportStream =
+                  TypeWithImports.of(parameters.getFirst().asType()).canonicalImports().stream();
+              Stream<String> stream = rt.canonicalImports().stream();
+              return Stream.concat(stream, paramImportStream).collect(Collectors.toSet());
+            })
+        .flatMap(Set::stream)
+        .filter(f -> !f.startsWith("java.lang."))
+        .collect(Collectors.toSet());
+  }
+
+  private static boolean isStream(ExecutableElement method) {
+    return method.getReturnType() instanceof DeclaredType dt
+        && READ_STREAM.equals(dt.asElement().toString());
+  }
+
+  private static boolean hasStreams(List<ExecutableElement> methods) {
+    return methods.stream().anyMatch(ServiceProxyGenerator::isStream);
+  }
+
+  private void processClient(Element serviceClassElement, GenerateProxies generateProxies)
+      throws IOException {
     System.err.println("Client annotation found");
 
     // generate a concrete class with implements to provided interface
@@ -76,39 +246,9 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       throw new GenerationException("Client annotation can only be used on interfaces");
     }
 
-    List<ExecutableElement> methodsToOverride =
-        serviceClassElement.getEnclosedElements().stream()
-            .filter(e -> e.getKind() == ElementKind.METHOD)
-            .filter(e -> !e.getModifiers().contains(Modifier.DEFAULT))
-            .map(e -> (ExecutableElement) e)
-            .toList();
+    List<ExecutableElement> methodsToOverride = getMethodsToOverride(serviceClassElement);
 
-    Set<String> imports =
-        methodsToOverride.stream()
-            .map(
-                e -> {
-                  var rt = TypeWithImports.of(e.getReturnType());
-                  if (!rt.canonicalImports().contains("io.vertx.core.Future")) {
-                    throw new GenerationException(
-                        "Method return type must be io.vertx.core.Future");
-                  }
-
-                  List<? extends VariableElement> parameters = e.getParameters();
-
-                  if (parameters.size() != 1) {
-                    throw new GenerationException("Method must have exactly one parameter");
-                  }
-
-                  Stream<String> paramImportStream =
-                      TypeWithImports.of(parameters.getFirst().asType())
-                          .canonicalImports()
-                          .stream();
-                  Stream<String> stream = rt.canonicalImports().stream();
-                  return Stream.concat(stream, paramImportStream).collect(Collectors.toSet());
-                })
-            .flatMap(Set::stream)
-            .filter(f -> !f.startsWith("java.lang."))
-            .collect(Collectors.toSet());
+    Set<String> imports = getClientImports(methodsToOverride);
 
     String canonicalName = serviceClassElement.asType().toString();
     String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
@@ -124,10 +264,19 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println();
 
       imports.forEach(anImport -> out.printf("import %s;%n", anImport));
+      if (hasStreams(methodsToOverride)) {
+        out.println(
+            "import github.benslabbert.vertxdaggercodegen.commons.serviceproxy"
+                + ".EventBusStreamReader;");
+      }
       out.println("import io.vertx.serviceproxy.ServiceException;");
       out.println("import io.vertx.serviceproxy.ServiceExceptionMessageCodec;");
       out.println("import io.vertx.core.json.JsonObject;");
       out.println("import io.vertx.core.eventbus.DeliveryOptions;");
+      out.println("import io.vertx.core.tracing.TracingPolicy;");
+      if (generateProxies.codec()) {
+        out.println("import io.vertx.core.eventbus.Message;");
+      }
       out.println("import io.vertx.core.Vertx;");
       out.println("import io.vertx.core.Future;");
       out.println("import javax.annotation.processing.Generated;");
@@ -140,9 +289,17 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println(
           "public class " + generatedClassName + " implements " + interfaceSimpleName + " {");
       out.println();
-      out.println("\tprivate Vertx _vertx;");
-      out.println("\tprivate String _address;");
-      out.println("\tprivate DeliveryOptions _options;");
+      out.println("\tprivate final Vertx _vertx;");
+      out.println("\tprivate final String _address;");
+      // the header map is handed to the message as is, and a tracer may write to it,
+      // so the precomputed options are only shared between calls when tracing is ignored
+      out.println("\tprivate final boolean _shareOptions;");
+      // options such as the send timeout do not apply to a local call, so only clients without
+      // options call a handler in this JVM directly
+      out.println("\tprivate final boolean _allowLocal;");
+      for (ExecutableElement overrideMethod : methodsToOverride) {
+        out.printf("\tprivate final DeliveryOptions %s;%n", optionsFieldName(overrideMethod));
+      }
       out.println();
 
       // generate constructors
@@ -156,7 +313,17 @@ public class ServiceProxyGenerator extends AbstractProcessor {
           generatedClassName);
       out.println("\t\tthis._vertx = vertx;");
       out.println("\t\tthis._address = address;");
-      out.println("\t\tthis._options = options;");
+      out.println(
+          "\t\tthis._shareOptions = options != null && options.getTracingPolicy() =="
+              + " TracingPolicy.IGNORE;");
+      out.println("\t\tthis._allowLocal = options == null;");
+      for (ExecutableElement overrideMethod : methodsToOverride) {
+        out.printf(
+            "\t\tthis.%s = withAction(options, \"%s\", \"%d\");%n",
+            optionsFieldName(overrideMethod),
+            overrideMethod.getSimpleName(),
+            actionId(overrideMethod));
+      }
 
       out.println("\t\ttry {");
       out.println("\t\t\tthis._vertx");
@@ -167,6 +334,21 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println("\t\t} catch (IllegalStateException ex) {");
       out.println("\t\t\t// ignore");
       out.println("\t\t}");
+      if (generateProxies.codec()) {
+        out.printf("\t\t%sVertxEBCodecs.register(vertx);%n", interfaceSimpleName);
+      }
+      out.println("\t}");
+      out.println();
+
+      out.println(
+          "\tprivate static DeliveryOptions withAction(DeliveryOptions options, String action,"
+              + " String actionId) {");
+      out.println(
+          "\t\tDeliveryOptions _deliveryOptions = (options != null) ? new"
+              + " DeliveryOptions(options) : new DeliveryOptions();");
+      out.println("\t\t_deliveryOptions.getHeaders().set(\"action\", action);");
+      out.println("\t\t_deliveryOptions.getHeaders().set(\"actionId\", actionId);");
+      out.println("\t\treturn _deliveryOptions;");
       out.println("\t}");
       out.println();
 
@@ -176,42 +358,382 @@ public class ServiceProxyGenerator extends AbstractProcessor {
         // only one, validated above
         String paramName =
             TypeWithImports.of(overrideMethod.getParameters().getFirst().asType()).printableName();
+        String optionsFieldName = optionsFieldName(overrideMethod);
 
         out.println("\t@Override");
         out.printf(
             "\tpublic %s %s(%s req) {%n",
             rt.printableName(), overrideMethod.getSimpleName(), paramName);
-        out.println("\t\tJsonObject _json = new JsonObject();");
-        out.println("\t\t_json.put(\"request\", req.toJson());");
+        if (isStream(overrideMethod)) {
+          // the stream address header is set per call, the options are never shared
+          out.printf(
+              "\t\tDeliveryOptions _deliveryOptions = new DeliveryOptions(%s);%n",
+              optionsFieldName);
+          printStreamRequest(out, rt, generateProxies);
+        } else {
+          // a handler registered in this JVM is called directly, without the event bus
+          out.printf(
+              "\t\t%sVertxEBProxyHandler _local = _allowLocal ? %sVertxEBProxyHandler.local(_vertx,"
+                  + " _address) : null;%n",
+              interfaceSimpleName, interfaceSimpleName);
+          out.println("\t\tif (_local != null) {");
+          out.printf("\t\t\treturn _local.%s(req);%n", localMethodName(overrideMethod));
+          out.println("\t\t}");
+          out.println();
+          out.printf(
+              "\t\tDeliveryOptions _deliveryOptions = _shareOptions ? %s : new"
+                  + " DeliveryOptions(%s);%n",
+              optionsFieldName, optionsFieldName);
+          printRequest(out, rt, generateProxies);
+        }
+        out.println("\t}");
         out.println();
 
-        out.println(
-            "\t\tDeliveryOptions _deliveryOptions = (_options != null) ? new"
-                + " DeliveryOptions(_options) : new DeliveryOptions();");
+        // per call options are layered on the precomputed options of the method, only their
+        // send timeout and tracing policy are applied
         out.printf(
-            "\t\t_deliveryOptions.addHeader(\"action\", \"%s\");%n",
-            overrideMethod.getSimpleName().toString());
+            "\tpublic %s %s(%s req, DeliveryOptions options) {%n",
+            rt.printableName(), overrideMethod.getSimpleName(), paramName);
         out.printf(
-            "\t\t_deliveryOptions.getHeaders().set(\"action\", \"%s\");%n",
-            overrideMethod.getSimpleName().toString());
+            "\t\tDeliveryOptions _deliveryOptions = new DeliveryOptions(%s);%n", optionsFieldName);
+        out.println("\t\tif (options != null) {");
+        out.println("\t\t\t_deliveryOptions.setSendTimeout(options.getSendTimeout());");
+        out.println("\t\t\t_deliveryOptions.setTracingPolicy(options.getTracingPolicy());");
+        out.println("\t\t}");
+        if (isStream(overrideMethod)) {
+          printStreamRequest(out, rt, generateProxies);
+        } else {
+          printRequest(out, rt, generateProxies);
+        }
+        out.println("\t}");
+        out.println();
+      }
+
+      out.println("}");
+    }
+  }
+
+  private void processBatchingClient(Element serviceClassElement, GenerateProxies generateProxies)
+      throws IOException {
+    System.err.println("Batch mode enabled");
+
+    List<ExecutableElement> methodsToOverride = getMethodsToOverride(serviceClassElement);
+    Set<String> imports = getClientImports(methodsToOverride);
+
+    String canonicalName = serviceClassElement.asType().toString();
+    String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
+    Name interfaceSimpleName = serviceClassElement.getSimpleName();
+    String generatedClassName = interfaceSimpleName + "VertxEBBatchingClientProxy";
+
+    JavaFileObject builderFile =
+        processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
+
+    try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+      out.printf("package %s;%n", classPackage);
+      out.println();
+
+      imports.forEach(anImport -> out.printf("import %s;%n", anImport));
+      if (hasStreams(methodsToOverride)) {
+        out.println(
+            "import github.benslabbert.vertxdaggercodegen.commons.serviceproxy"
+                + ".EventBusStreamReader;");
+      }
+      out.println("import io.vertx.serviceproxy.ServiceException;");
+      out.println("import io.vertx.serviceproxy.ServiceExceptionMessageCodec;");
+      out.println("import io.vertx.core.json.JsonArray;");
+      out.println("import io.vertx.core.json.JsonObject;");
+      out.println("import io.vertx.core.eventbus.DeliveryOptions;");
+      out.println("import io.vertx.core.Vertx;");
+      out.println("import io.vertx.core.Future;");
+      out.println("import io.vertx.core.Promise;");
+      out.println("import java.util.ArrayList;");
+      out.println("import java.util.List;");
+      out.println("import javax.annotation.processing.Generated;");
+      out.println();
+
+      out.printf(
+          "@Generated(value = \"%s\", date = \"%s\")%n",
+          getClass().getCanonicalName(),
+          LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+      out.println(
+          "public class " + generatedClassName + " implements " + interfaceSimpleName + " {");
+      out.println();
+      out.println("\tprivate final Vertx _vertx;");
+      out.println("\tprivate final String _address;");
+      out.println("\tprivate final DeliveryOptions _options;");
+      out.println("\tprivate final int _maxBatchSize;");
+      out.println("\tprivate final long _windowMillis;");
+      out.println("\tprivate List<Pending> _pending;");
+      out.println("\tprivate long _timerId = -1;");
+      out.println();
+
+      // generate constructors
+      out.printf(
+          "\tpublic %s(Vertx vertx, String address, int maxBatchSize, long windowMillis) {%n",
+          generatedClassName);
+      out.println("\t\tthis(vertx, address, null, maxBatchSize, windowMillis);");
+      out.println("\t}");
+      out.println();
+
+      out.printf(
+          "\tpublic %s(Vertx vertx, String address, DeliveryOptions options, int maxBatchSize,"
+              + " long windowMillis) {%n",
+          generatedClassName);
+      out.println("\t\tif (maxBatchSize < 1) {");
+      out.println(
+          "\t\t\tthrow new IllegalArgumentException(\"maxBatchSize must be greater than 0\");");
+      out.println("\t\t}");
+      out.println("\t\tif (windowMillis < 1) {");
+      out.println(
+          "\t\t\tthrow new IllegalArgumentException(\"windowMillis must be greater than 0\");");
+      out.println("\t\t}");
+      out.println("\t\tthis._vertx = vertx;");
+      out.println("\t\tthis._address = address;");
+      out.println(
+          "\t\tthis._options = (options != null) ? new DeliveryOptions(options) : new"
+              + " DeliveryOptions();");
+      out.printf("\t\tthis._options.getHeaders().set(\"action\", \"%s\");%n", BATCH_ACTION);
+      out.printf("\t\tthis._options.getHeaders().set(\"actionId\", \"%d\");%n", BATCH_ACTION_ID);
+      out.println("\t\tthis._maxBatchSize = maxBatchSize;");
+      out.println("\t\tthis._windowMillis = windowMillis;");
+      out.println("\t\tthis._pending = new ArrayList<>(maxBatchSize);");
+      out.println("\t\ttry {");
+      out.println("\t\t\tthis._vertx");
+      out.println("\t\t\t\t.eventBus()");
+      out.println(
+          "\t\t\t\t.registerDefaultCodec(ServiceException.class, new"
+              + " ServiceExceptionMessageCodec());");
+      out.println("\t\t} catch (IllegalStateException ex) {");
+      out.println("\t\t\t// ignore");
+      out.println("\t\t}");
+      out.println("\t}");
+      out.println();
 
-        out.println("\t\treturn _vertx");
-        out.println("\t\t\t\t.eventBus()");
-        out.println("\t\t\t\t.<JsonObject>request(_address, _json, _deliveryOptions)");
-        out.println("\t\t\t\t.map(msg -> {");
+      // generate method
+      for (ExecutableElement overrideMethod : methodsToOverride) {
+        var rt = TypeWithImports.of(overrideMethod.getReturnType());
+        // only one, validated above
+        String paramName =
+            TypeWithImports.of(overrideMethod.getParameters().getFirst().asType()).printableName();
         String genericType = getGenericType(rt.printableName());
+
+        out.println("\t@Override");
         out.printf(
-            "\t\t\t\t\treturn msg.body() != null ? %s.fromJson(msg.body()) : null;%n", genericType);
-        out.println("\t\t\t\t});");
+            "\tpublic %s %s(%s req) {%n",
+            rt.printableName(), overrideMethod.getSimpleName(), paramName);
+        if (isStream(overrideMethod)) {
+          // streams are not batched, the call is sent on its own
+          out.println("\t\tDeliveryOptions _deliveryOptions = new DeliveryOptions(_options);");
+          out.printf(
+              "\t\t_deliveryOptions.getHeaders().set(\"action\", \"%s\");%n",
+              overrideMethod.getSimpleName());
+          out.printf(
+              "\t\t_deliveryOptions.getHeaders().set(\"actionId\", \"%d\");%n",
+              actionId(overrideMethod));
+          printStreamRequest(out, rt, generateProxies);
+          out.println("\t}");
+          out.println();
+          continue;
+        }
+
+        out.println("\t\tPromise<JsonObject> _promise = Promise.promise();");
+        out.printf(
+            "\t\tenqueue(new Pending(%d, req != null ? req.toJson() : null, _promise));%n",
+            actionId(overrideMethod));
+        out.println("\t\treturn _promise");
+        out.println("\t\t\t\t.future()");
+        out.printf(
+            "\t\t\t\t.map(json -> json != null ? %s.fromJson(json) : null);%n", genericType);
         out.println("\t}");
         out.println();
       }
 
+      out.println("\t/** sends the pending calls without waiting for the batch window to end */");
+      out.println("\tpublic void flush() {");
+      out.println("\t\tList<Pending> batch;");
+      out.println("\t\tsynchronized (this) {");
+      out.println("\t\t\tif (_pending.isEmpty()) {");
+      out.println("\t\t\t\treturn;");
+      out.println("\t\t\t}");
+      out.println("\t\t\tbatch = _pending;");
+      out.println("\t\t\t_pending = new ArrayList<>(_maxBatchSize);");
+      out.println("\t\t\tif (_timerId != -1) {");
+      out.println("\t\t\t\t_vertx.cancelTimer(_timerId);");
+      out.println("\t\t\t\t_timerId = -1;");
+      out.println("\t\t\t}");
+      out.println("\t\t}");
+      out.println();
+      out.println("\t\tJsonArray requests = new JsonArray(new ArrayList<>(batch.size()));");
+      out.println("\t\tfor (Pending pending : batch) {");
+      out.println(
+          "\t\t\trequests.add(new JsonObject().put(\"actionId\", pending.actionId())"
+              + ".put(\"request\", pending.request()));");
+      out.println("\t\t}");
+      out.println();
+      out.println("\t\t_vertx");
+      out.println("\t\t\t\t.eventBus()");
+      out.println(
+          "\t\t\t\t.<JsonObject>request(_address, new JsonObject().put(\"batch\", requests), new"
+              + " DeliveryOptions(_options))");
+      out.println("\t\t\t\t.onComplete(");
+      out.println("\t\t\t\t\tar -> {");
+      out.println("\t\t\t\t\t\tif (ar.failed()) {");
+      out.println("\t\t\t\t\t\t\tfor (Pending pending : batch) {");
+      out.println("\t\t\t\t\t\t\t\tpending.promise().fail(ar.cause());");
+      out.println("\t\t\t\t\t\t\t}");
+      out.println("\t\t\t\t\t\t\treturn;");
+      out.println("\t\t\t\t\t\t}");
+      out.println();
+      out.println("\t\t\t\t\t\tJsonObject body = ar.result().body();");
+      out.println(
+          "\t\t\t\t\t\tJsonArray results = body != null ? body.getJsonArray(\"results\") :"
+              + " null;");
+      out.println("\t\t\t\t\t\tint size = results != null ? results.size() : 0;");
+      out.println("\t\t\t\t\t\tfor (int i = 0; i < batch.size(); i++) {");
+      out.println(
+          "\t\t\t\t\t\t\tJsonObject result = i < size ? results.getJsonObject(i) : null;");
+      out.println("\t\t\t\t\t\t\tif (result == null) {");
+      out.println("\t\t\t\t\t\t\t\t// a handler that replied to fewer calls than were sent");
+      out.println(
+          "\t\t\t\t\t\t\t\tbatch.get(i).promise().fail(new ServiceException(500, \"no"
+              + " result in batch reply\"));");
+      out.println("\t\t\t\t\t\t\t} else if (result.containsKey(\"failureCode\")) {");
+      out.println("\t\t\t\t\t\t\t\tbatch.get(i)");
+      out.println("\t\t\t\t\t\t\t\t\t.promise()");
+      out.println(
+          "\t\t\t\t\t\t\t\t\t.fail(new ServiceException(result.getInteger(\"failureCode\"),"
+              + " result.getString(\"message\")));");
+      out.println("\t\t\t\t\t\t\t} else {");
+      out.println(
+          "\t\t\t\t\t\t\t\tbatch.get(i).promise().complete(result.getJsonObject(\"result\"));");
+      out.println("\t\t\t\t\t\t\t}");
+      out.println("\t\t\t\t\t\t}");
+      out.println("\t\t\t\t\t});");
+      out.println("\t}");
+      out.println();
+
+      out.println("\tprivate void enqueue(Pending pending) {");
+      out.println("\t\tboolean full;");
+      out.println("\t\tsynchronized (this) {");
+      out.println("\t\t\t_pending.add(pending);");
+      out.println("\t\t\tfull = _pending.size() >= _maxBatchSize;");
+      out.println("\t\t\tif (!full && _timerId == -1) {");
+      out.println("\t\t\t\t_timerId = _vertx.setTimer(_windowMillis, id -> flush());");
+      out.println("\t\t\t}");
+      out.println("\t\t}");
+      out.println("\t\tif (full) {");
+      out.println("\t\t\tflush();");
+      out.println("\t\t}");
+      out.println("\t}");
+      out.println();
+
+      out.println(
+          "\tprivate record Pending(int actionId, JsonObject request, Promise<JsonObject> promise)"
+              + " {}");
       out.println("}");
     }
   }
 
-  private void processServer(Element serviceClassElement) throws IOException {
+  private static void printRequest(
+      PrintWriter out, TypeWithImports rt, GenerateProxies generateProxies) {
+    String genericType = getGenericType(rt.printableName());
+
+    if (!generateProxies.codec()) {
+      out.println("\t\tJsonObject _json = new JsonObject();");
+      out.println("\t\t_json.put(\"request\", req.toJson());");
+      out.println();
+    }
+
+    out.println("\t\treturn _vertx");
+    out.println("\t\t\t\t.eventBus()");
+    if (generateProxies.codec()) {
+      out.printf("\t\t\t\t.<%s>request(_address, req, _deliveryOptions)%n", genericType);
+      out.println("\t\t\t\t.map(Message::body);");
+    } else {
+      out.println("\t\t\t\t.<JsonObject>request(_address, _json, _deliveryOptions)");
+      out.println("\t\t\t\t.map(msg -> {");
+      out.printf(
+          "\t\t\t\t\treturn msg.body() != null ? %s.fromJson(msg.body()) : null;%n",
+          genericType);
+      out.println("\t\t\t\t});");
+    }
+  }
+
+  private static void printStreamRequest(
+      PrintWriter out, TypeWithImports rt, GenerateProxies generateProxies) {
+    String genericType = getGenericType(rt.printableName());
+
+    out.printf(
+        "\t\tEventBusStreamReader<%s> _stream = EventBusStreamReader.create(_vertx, json -> json !="
+            + " null ? %s.fromJson(json) : null);%n",
+        genericType, genericType);
+    out.println("\t\t_deliveryOptions.getHeaders().set(\"streamAddress\", _stream.address());");
+
+    if (generateProxies.codec()) {
+      out.println(
+          "\t\t_stream.connect(() -> _vertx.eventBus().<JsonObject>request(_address, req,"
+              + " _deliveryOptions));");
+    } else {
+      out.println("\t\tJsonObject _json = new JsonObject();");
+      out.println("\t\t_json.put(\"request\", req.toJson());");
+      out.println(
+          "\t\t_stream.connect(() -> _vertx.eventBus().<JsonObject>request(_address, _json,"
+              + " _deliveryOptions));");
+    }
+    out.println("\t\treturn _stream;");
+  }
+
+  /**
+   * the action id is derived from the method name and parameter type so client and handler agree
+   * on it independent of the declaration order, a handler generated from a different version of
+   * the interface does not know the id and fails the call instead of running another method
+   */
+  private static int actionId(ExecutableElement method) {
+    String signature =
+        method.getSimpleName() + "(" + method.getParameters().getFirst().asType() + ")";
+    return signature.hashCode();
+  }
+
+  private static void checkActionIds(List<ExecutableElement> methods) {
+    Map<Integer, ExecutableElement> ids = new HashMap<>();
+    Set<String> names = new HashSet<>();
+    for (ExecutableElement method : methods) {
+      if (method.getParameters().size() != 1) {
+        throw new GenerationException("Method must have exactly one parameter");
+      }
+
+      int id = actionId(method);
+      ExecutableElement other = ids.putIfAbsent(id, method);
+      if (BATCH_ACTION_ID == id || null != other) {
+        throw new GenerationException(
+            "action id collision for method " + method + ", rename the method");
+      }
+      if (!names.add(actionIdName(method))) {
+        throw new GenerationException("action id name is not unique: " + actionIdName(method));
+      }
+    }
+  }
+
+  /** getValues becomes ACTION_ID_GET_VALUES */
+  private static String actionIdName(ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    StringBuilder sb = new StringBuilder("ACTION_ID_");
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) {
+        sb.append('_');
+      }
+      sb.append(Character.toUpperCase(c));
+    }
+    return sb.toString();
+  }
+
+  private static String optionsFieldName(ExecutableElement method) {
+    return "_" + method.getSimpleName() + "Options";
+  }
+
+  private void processServer(Element serviceClassElement, GenerateProxies generateProxies)
+      throws IOException {
     System.err.println("Server annotation found");
 
     // generate a concrete class with implements to provided interface
@@ -219,12 +741,7 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       throw new GenerationException("Server annotation can only be used on interfaces");
     }
 
-    List<ExecutableElement> methodsToOverride =
-        serviceClassElement.getEnclosedElements().stream()
-            .filter(e -> e.getKind() == ElementKind.METHOD)
-            .filter(e -> !e.getModifiers().contains(Modifier.DEFAULT))
-            .map(e -> (ExecutableElement) e)
-            .toList();
+    List<ExecutableElement> methodsToOverride = getMethodsToOverride(serviceClassElement);
 
     Set<String> methodParamImports =
         methodsToOverride.stream()
@@ -236,11 +753,22 @@ public class ServiceProxyGenerator extends AbstractProcessor {
                     throw new GenerationException("Method must have exactly one parameter");
                   }
 
-                  return TypeWithImports.of(parameters.getFirst().asType()).canonicalImports();
+                  Set<String> imports =
+                      new HashSet<>(
+                          TypeWithImports.of(parameters.getFirst().asType()).canonicalImports());
+                  if (!isStream(e)) {
+                    // the local methods return the same type as the service
+                    imports.addAll(TypeWithImports.of(e.getReturnType()).canonicalImports());
+                  }
+                  return imports;
                 })
             .flatMap(Set::stream)
+            .filter(f -> !f.startsWith("java.lang."))
+            .filter(f -> !"io.vertx.core.Future".equals(f))
             .collect(Collectors.toSet());
 
+    boolean hasLocal = methodsToOverride.stream().anyMatch(e -> !isStream(e));
+
     String canonicalName = serviceClassElement.asType().toString();
     String classPackage = canonicalName.substring(0, canonicalName.lastIndexOf('.'));
     Name interfaceSimpleName = serviceClassElement.getSimpleName();
@@ -254,8 +782,40 @@ public class ServiceProxyGenerator extends AbstractProcessor {
     try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
       out.printf("package %s;%n", classPackage);
       out.println();
+      if (hasStreams(methodsToOverride)) {
+        out.println(
+            "import github.benslabbert.vertxdaggercodegen.commons.serviceproxy"
+                + ".EventBusStreamWriter;");
+      }
+      out.println(
+          "import github.benslabbert.vertxdaggercodegen.commons.serviceproxy.IdleTimeoutWheel;");
+      if (hasLocal) {
+        out.println("import io.vertx.core.AsyncResult;");
+      }
+      out.println("import io.vertx.core.Context;");
+      out.println("import io.vertx.core.MultiMap;");
       out.println("import io.vertx.core.Vertx;");
+      out.println("import io.vertx.core.eventbus.EventBus;");
       out.println("import io.vertx.core.eventbus.Message;");
+      out.println("import io.vertx.core.eventbus.MessageConsumer;");
+      if (hasLocal) {
+        out.println("import io.vertx.core.Promise;");
+        out.println("import java.util.function.Function;");
+        out.println("import java.util.function.Supplier;");
+      }
+      if (hasLocal || generateProxies.batch()) {
+        out.println("import io.vertx.core.Future;");
+      }
+      out.println("import java.util.Arrays;");
+      out.println("import java.util.concurrent.ConcurrentHashMap;");
+      out.println("import java.util.concurrent.ConcurrentMap;");
+      out.println("import java.util.concurrent.atomic.AtomicInteger;");
+      if (generateProxies.batch()) {
+        out.println("import io.vertx.core.eventbus.ReplyException;");
+        out.println("import io.vertx.core.json.JsonArray;");
+        out.println("import java.util.ArrayList;");
+        out.println("import java.util.List;");
+      }
       out.println("import io.vertx.core.json.JsonObject;");
       out.println("import io.vertx.serviceproxy.HelperUtils;");
       out.println("import io.vertx.serviceproxy.ProxyHandler;");
@@ -273,14 +833,28 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println();
 
       out.println("\tpublic static final long DEFAULT_CONNECTION_TIMEOUT = 5 * 60; // 5 minutes");
+      for (ExecutableElement method : methodsToOverride) {
+        out.printf(
+            "\tstatic final int %s = %d; // %s%n",
+            actionIdName(method), actionId(method), method.getSimpleName());
+      }
       out.println("\tprivate final Vertx vertx;");
       out.printf("\tprivate final %s service;%n", interfaceSimpleName);
-      out.println("\tprivate final long timerID;");
-      out.println("\tprivate long lastAccessed;");
+      out.println("\tprivate final IdleTimeoutWheel.Timeout timeout;");
+      // read by the idle timeout wheel, which may run on another thread
+      out.println("\tprivate volatile long lastAccessed;");
       out.println("\tprivate final long timeoutSeconds;");
       out.println("\tprivate final boolean includeDebugInfo;");
       out.println();
 
+      // handlers registered in this JVM by address, the client calls them without the event bus
+      out.println(
+          "\tprivate static final ConcurrentMap<String, LocalHandlers> LOCAL = new"
+              + " ConcurrentHashMap<>();");
+      out.println("\tprivate String address;");
+      out.println("\tprivate Context context;");
+      out.println();
+
       // constructors
       out.printf(
           "\tpublic %s(Vertx vertx, %s service) {%n", generatedClassName, interfaceSimpleName);
@@ -319,30 +893,29 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println("\t\t} catch (IllegalStateException ex) {");
       out.println("\t\t\t// ignore");
       out.println("\t\t}");
+      if (generateProxies.codec()) {
+        out.printf("\t\t%sVertxEBCodecs.register(vertx);%n", interfaceSimpleName);
+      }
+      out.println("\t\taccessed();");
+      // idle handlers share one timer per context instead of a periodic timer each
       out.println("\t\tif (timeoutSeconds != -1 && !topLevel) {");
-      out.println("\t\t\tlong period = timeoutSeconds * 1000 / 2;");
-      out.println("\t\t\tif (period > 10000) {");
-      out.println("\t\t\t\tperiod = 10000;");
-      out.println("\t\t\t}");
-      out.println("\t\t\tthis.timerID = vertx.setPeriodic(period, this::checkTimedOut);");
+      out.println(
+          "\t\t\tthis.timeout = IdleTimeoutWheel.get(vertx).schedule(timeoutSeconds * 1000, ()"
+              + " -> lastAccessed, this::close);");
       out.println("\t\t} else {");
-      out.println("\t\t\tthis.timerID = -1;");
+      out.println("\t\t\tthis.timeout = null;");
       out.println("\t\t}");
-      out.println("\t\taccessed();");
       out.println("\t}");
       out.println();
 
-      out.println("\tprivate void checkTimedOut(long id) {");
-      out.println("\t\tlong now = System.nanoTime();");
-      out.println("\t\tif (now - lastAccessed > timeoutSeconds * 1000000000) {");
-      out.println("\t\t\tclose();");
-      out.println("\t\t}");
-      out.println("\t}");
-      out.println();
       out.println("\t@Override");
       out.println("\tpublic void close() {");
-      out.println("\t\tif (timerID != -1) {");
-      out.println("\t\t\tvertx.cancelTimer(timerID);");
+      out.println("\t\tif (timeout != null) {");
+      out.println("\t\t\ttimeout.cancel();");
+      out.println("\t\t}");
+      out.println("\t\tif (address != null) {");
+      out.println(
+          "\t\t\tLOCAL.computeIfPresent(address, (a, handlers) -> handlers.remove(this));");
       out.println("\t\t}");
       out.println("\t\tsuper.close();");
       out.println("\t}");
@@ -353,43 +926,68 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println("\t}");
 
       out.println();
+      printLocalRegistry(out, generatedClassName);
+      if (hasLocal) {
+        printLocalMethods(out, methodsToOverride);
+      }
 
       out.println("\t@Override");
       out.println("\tpublic void handle(Message<JsonObject> msg) {");
       out.println("\t\ttry {");
-      out.println("\t\t\tJsonObject json = msg.body();");
-      out.println("\t\t\tString action = msg.headers().get(\"action\");");
-      out.println("\t\t\tif (action == null) {");
-      out.println("\t\t\t\tthrow new IllegalStateException(\"action not specified\");");
-      out.println("\t\t\t}");
+      if (generateProxies.codec()) {
+        // the body is the request instance, not a JsonObject
+        out.println("\t\t\tObject body = ((Message<?>) msg).body();");
+      } else {
+        out.println("\t\t\tJsonObject json = msg.body();");
+      }
+      out.println("\t\t\tint actionId = actionId(msg.headers());");
       out.println("\t\t\taccessed();");
-      out.println("\t\t\tswitch (action) {");
+      out.println("\t\t\tswitch (actionId) {");
 
       for (ExecutableElement ee : methodsToOverride) {
         String paramName =
             TypeWithImports.of(ee.getParameters().getFirst().asType()).printableName();
         String methodName = ee.getSimpleName().toString();
-        out.printf("\t\t\t\tcase \"%s\" -> {%n", methodName);
+        String request =
+            generateProxies.codec()
+                ? "(%s) body".formatted(paramName)
+                : ("json.getJsonObject(\"request\") != null ?"
+                        + " %s.fromJson(json.getJsonObject(\"request\")) : null")
+                    .formatted(paramName);
+        out.printf("\t\t\t\tcase %s -> {%n", actionIdName(ee));
+        if (isStream(ee)) {
+          printStreamResponse(out, methodName, request);
+          continue;
+        }
+
         out.println("\t\t\t\t\tservice");
-        out.printf(
-            "\t\t\t\t\t\t.%s(json.getJsonObject(\"request\") != null ?"
-                + " %s.fromJson(json.getJsonObject(\"request\")) : null)%n",
-            methodName, paramName);
+        out.printf("\t\t\t\t\t\t.%s(%s)%n", methodName, request);
         out.println("\t\t\t\t\t\t.onComplete(");
         out.println("\t\t\t\t\t\t\tres -> {");
         out.println("\t\t\t\t\t\t\t\tif (res.failed()) {");
         out.println(
             "\t\t\t\t\t\t\t\t\tHelperUtils.manageFailure(msg, res.cause(), includeDebugInfo);");
         out.println("\t\t\t\t\t\t\t\t} else {");
-        out.println(
-            "\t\t\t\t\t\t\t\t\tmsg.reply(res.result() != null ? res.result().toJson() : null);");
+        if (generateProxies.codec()) {
+          out.println("\t\t\t\t\t\t\t\t\tmsg.reply(res.result());");
+        } else {
+          out.println(
+              "\t\t\t\t\t\t\t\t\tmsg.reply(res.result() != null ? res.result().toJson() :"
+                  + " null);");
+        }
         out.println("\t\t\t\t\t\t\t\t}");
         out.println("\t\t\t\t\t\t});");
         out.println("\t\t\t\t\t}");
       }
 
+      if (generateProxies.batch()) {
+        out.printf(
+            "\t\t\t\tcase %d -> handleBatch(msg, %s.getJsonArray(\"batch\"));%n",
+            BATCH_ACTION_ID, generateProxies.codec() ? "((JsonObject) body)" : "json");
+      }
       out.println(
-          "\t\t\t\tdefault -> throw new IllegalStateException(\"Invalid action: \" + action);");
+          "\t\t\t\tdefault -> throw new IllegalStateException(\"Invalid action id: \" +"
+              + " actionId);");
       out.println("\t\t\t}");
       out.println("\t\t} catch (Throwable t) {");
       out.println("\t\t\tif (includeDebugInfo) {");
@@ -403,12 +1001,324 @@ public class ServiceProxyGenerator extends AbstractProcessor {
       out.println("\t\t\tthrow t;");
       out.println("\t\t}");
 
+      out.println("\t}");
+      out.println();
+
+      if (generateProxies.batch()) {
+        printHandleBatch(out, methodsToOverride);
+      }
+
+      // package private so the dispatch step can be measured on its own
+      out.println("\tstatic int actionId(MultiMap headers) {");
+      out.println("\t\tString actionId = headers.get(\"actionId\");");
+      out.println("\t\tif (actionId != null) {");
+      out.println("\t\t\treturn Integer.parseInt(actionId);");
+      out.println("\t\t}");
+      out.println();
+      out.println("\t\t// clients which do not send an action id");
+      out.println("\t\tString action = headers.get(\"action\");");
+      out.println("\t\tif (action == null) {");
+      out.println("\t\t\tthrow new IllegalStateException(\"action not specified\");");
+      out.println("\t\t}");
+      out.println("\t\treturn switch (action) {");
+      if (generateProxies.batch()) {
+        out.printf("\t\t\tcase \"%s\" -> %d;%n", BATCH_ACTION, BATCH_ACTION_ID);
+      }
+      for (ExecutableElement method : methodsToOverride) {
+        out.printf("\t\t\tcase \"%s\" -> %s;%n", method.getSimpleName(), actionIdName(method));
+      }
+      out.println(
+          "\t\t\tdefault -> throw new IllegalStateException(\"Invalid action: \" + action);");
+      out.println("\t\t};");
       out.println("\t}");
 
       out.println("}");
     }
   }
 
+  private static void printLocalRegistry(PrintWriter out, String generatedClassName) {
+    // registrations with interceptors are not overridden and always go through the event bus
+    out.println("\t@Override");
+    out.println(
+        "\tpublic MessageConsumer<JsonObject> register(EventBus eventBus, String address) {");
+    out.println("\t\treturn publishLocal(super.register(eventBus, address), address);");
+    out.println("\t}");
+    out.println();
+
+    out.println("\t@Override");
+    out.println(
+        "\tpublic MessageConsumer<JsonObject> registerLocal(EventBus eventBus, String address) {");
+    out.println("\t\treturn publishLocal(super.registerLocal(eventBus, address), address);");
+    out.println("\t}");
+    out.println();
+
+    // the consumer delivers on the context it was registered on, off a context it is not known so
+    // the handler is only reached through the event bus
+    out.println(
+        "\tprivate MessageConsumer<JsonObject> publishLocal(MessageConsumer<JsonObject> consumer,"
+            + " String address) {");
+    out.println("\t\tContext current = Vertx.currentContext();");
+    out.println("\t\tif (current == null || current.owner() != vertx || this.address != null) {");
+    out.println("\t\t\treturn consumer;");
+    out.println("\t\t}");
+    out.println("\t\tthis.address = address;");
+    out.println("\t\tthis.context = current;");
+    out.println(
+        "\t\tLOCAL.compute(address, (a, handlers) -> (handlers != null ? handlers : new"
+            + " LocalHandlers()).add(this));");
+    out.println("\t\treturn consumer;");
+    out.println("\t}");
+    out.println();
+
+    out.println(
+        "\t/** a handler registered in this JVM, null when the event bus is needed, the handlers of"
+            + " an address are used in turn */");
+    out.printf("\tstatic %s local(Vertx vertx, String address) {%n", generatedClassName);
+    out.println("\t\tLocalHandlers handlers = LOCAL.get(address);");
+    out.println("\t\treturn handlers != null ? handlers.next(vertx) : null;");
+    out.println("\t}");
+    out.println();
+
+    out.println("\tprivate boolean isRegistered() {");
+    out.println("\t\treturn !closed && consumer != null && consumer.isRegistered();");
+    out.println("\t}");
+    out.println();
+
+    // copy on write, updates for an address are serialized by LOCAL.compute
+    out.println("\tprivate static final class LocalHandlers {");
+    out.println();
+    out.printf(
+        "\t\tprivate volatile %s[] handlers = new %s[0];%n",
+        generatedClassName, generatedClassName);
+    out.println("\t\tprivate final AtomicInteger next = new AtomicInteger();");
+    out.println();
+    out.printf("\t\tprivate LocalHandlers add(%s handler) {%n", generatedClassName);
+    out.println("\t\t\t// drops handlers whose consumer was unregistered without a close");
+    out.printf(
+        "\t\t\t%s[] registered = Arrays.stream(handlers).filter(%s::isRegistered)"
+            + ".toArray(%s[]::new);%n",
+        generatedClassName, generatedClassName, generatedClassName);
+    out.println("\t\t\tregistered = Arrays.copyOf(registered, registered.length + 1);");
+    out.println("\t\t\tregistered[registered.length - 1] = handler;");
+    out.println("\t\t\thandlers = registered;");
+    out.println("\t\t\treturn this;");
+    out.println("\t\t}");
+    out.println();
+    out.println("\t\t/** null when no handler is left */");
+    out.printf("\t\tprivate LocalHandlers remove(%s handler) {%n", generatedClassName);
+    out.printf(
+        "\t\t\thandlers = Arrays.stream(handlers).filter(h -> h != handler).toArray(%s[]::new);%n",
+        generatedClassName);
+    out.println("\t\t\treturn handlers.length == 0 ? null : this;");
+    out.println("\t\t}");
+    out.println();
+    out.printf("\t\tprivate %s next(Vertx vertx) {%n", generatedClassName);
+    out.printf("\t\t\t%s[] current = handlers;%n", generatedClassName);
+    out.println("\t\t\tint start = next.getAndIncrement();");
+    out.println("\t\t\tfor (int i = 0; i < current.length; i++) {");
+    out.printf(
+        "\t\t\t\t%s handler = current[Math.floorMod(start + i, current.length)];%n",
+        generatedClassName);
+    out.println("\t\t\t\tif (handler.vertx == vertx && handler.isRegistered()) {");
+    out.println("\t\t\t\t\treturn handler;");
+    out.println("\t\t\t\t}");
+    out.println("\t\t\t}");
+    out.println("\t\t\treturn null;");
+    out.println("\t\t}");
+    out.println("\t}");
+    out.println();
+  }
+
+  private void printLocalMethods(PrintWriter out, List<ExecutableElement> methodsToOverride) {
+    for (ExecutableElement ee : methodsToOverride) {
+      if (isStream(ee)) {
+        continue;
+      }
+
+      TypeMirror requestType = ee.getParameters().getFirst().asType();
+      TypeMirror responseType = ((DeclaredType) ee.getReturnType()).getTypeArguments().getFirst();
+      String paramName = TypeWithImports.of(requestType).printableName();
+      String returnType = TypeWithImports.of(ee.getReturnType()).printableName();
+      String responseName = getGenericType(returnType);
+
+      // immutable records are passed by reference, everything else is copied as on the wire
+      out.printf("\t%s %s(%s req) {%n", returnType, localMethodName(ee), paramName);
+      if (isImmutable(requestType)) {
+        out.printf("\t\t%s _req = req;%n", paramName);
+      } else {
+        out.printf(
+            "\t\t%s _req = req != null ? %s.fromJson(req.toJson()) : null;%n",
+            paramName, paramName);
+      }
+      out.printf(
+          "\t\treturn invokeLocal(() -> service.%s(_req), %s);%n",
+          ee.getSimpleName(),
+          isImmutable(responseType)
+              ? "Function.identity()"
+              : "res -> %s.fromJson(res.toJson())".formatted(responseName));
+      out.println("\t}");
+      out.println();
+    }
+
+    // the service runs on the context of the handler, the result is delivered on the caller's
+    // context, failures are mapped to a ServiceException as HelperUtils.manageFailure does
+    out.println(
+        "\tprivate <T> Future<T> invokeLocal(Supplier<Future<T>> call, Function<T, T> copy) {");
+    out.println("\t\tContext caller = vertx.getOrCreateContext();");
+    out.println("\t\tPromise<T> promise = Promise.promise();");
+    out.println("\t\tcontext.runOnContext(");
+    out.println("\t\t\tv -> {");
+    out.println("\t\t\t\taccessed();");
+    out.println("\t\t\t\tFuture<T> res;");
+    out.println("\t\t\t\ttry {");
+    out.println("\t\t\t\t\tres = call.get();");
+    out.println("\t\t\t\t} catch (Throwable t) {");
+    out.println("\t\t\t\t\tres = Future.failedFuture(serviceException(500, t));");
+    out.println("\t\t\t\t}");
+    out.println("\t\t\t\tres.onComplete(");
+    out.println("\t\t\t\t\tar -> {");
+    out.println("\t\t\t\t\t\tif (caller == context) {");
+    out.println("\t\t\t\t\t\t\tdeliver(promise, ar, copy);");
+    out.println("\t\t\t\t\t\t} else {");
+    out.println("\t\t\t\t\t\t\tcaller.runOnContext(ignore -> deliver(promise, ar, copy));");
+    out.println("\t\t\t\t\t\t}");
+    out.println("\t\t\t\t\t});");
+    out.println("\t\t\t});");
+    out.println("\t\treturn promise.future();");
+    out.println("\t}");
+    out.println();
+
+    out.println(
+        "\tprivate <T> void deliver(Promise<T> promise, AsyncResult<T> ar, Function<T, T> copy)"
+            + " {");
+    out.println("\t\tif (ar.succeeded()) {");
+    out.println("\t\t\tpromise.complete(ar.result() != null ? copy.apply(ar.result()) : null);");
+    out.println("\t\t} else if (ar.cause() instanceof ServiceException) {");
+    out.println("\t\t\tpromise.fail(ar.cause());");
+    out.println("\t\t} else {");
+    out.println("\t\t\tpromise.fail(serviceException(-1, ar.cause()));");
+    out.println("\t\t}");
+    out.println("\t}");
+    out.println();
+
+    out.println("\tprivate ServiceException serviceException(int failureCode, Throwable t) {");
+    out.println("\t\treturn includeDebugInfo");
+    out.println(
+        "\t\t\t\t? new ServiceException(failureCode, t.getMessage(),"
+            + " HelperUtils.generateDebugInfo(t))");
+    out.println("\t\t\t\t: new ServiceException(failureCode, t.getMessage());");
+    out.println("\t}");
+    out.println();
+  }
+
+  private boolean isImmutable(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && MessageCodecWriter.isImmutable(
+            (TypeElement) processingEnv.getTypeUtils().asElement(type));
+  }
+
+  private static String localMethodName(ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    return "local" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static void printStreamResponse(PrintWriter out, String methodName, String request) {
+    out.println("\t\t\t\t\tString streamAddress = msg.headers().get(\"streamAddress\");");
+    out.println("\t\t\t\t\tif (streamAddress == null) {");
+    out.println(
+        "\t\t\t\t\t\tthrow new IllegalStateException(\"streamAddress not specified\");");
+    out.println("\t\t\t\t\t}");
+    out.println("\t\t\t\t\tString controlAddress =");
+    out.println("\t\t\t\t\t\tEventBusStreamWriter.create(");
+    out.println("\t\t\t\t\t\t\t\tvertx,");
+    out.printf("\t\t\t\t\t\t\t\tservice.%s(%s),%n", methodName, request);
+    out.println("\t\t\t\t\t\t\t\tstreamAddress,");
+    out.println("\t\t\t\t\t\t\t\tres -> res != null ? res.toJson() : null,");
+    out.println("\t\t\t\t\t\t\t\ttimeoutSeconds != -1 ? timeoutSeconds * 1000 : -1)");
+    out.println("\t\t\t\t\t\t\t.address();");
+    out.println("\t\t\t\t\tmsg.reply(new JsonObject().put(\"controlAddress\", controlAddress));");
+    out.println("\t\t\t\t}");
+  }
+
+  private static void printHandleBatch(
+      PrintWriter out, List<ExecutableElement> methodsToOverride) {
+    out.println("\tprivate void handleBatch(Message<JsonObject> msg, JsonArray batch) {");
+    out.println("\t\tint size = batch.size();");
+    out.println("\t\tList<Future<JsonObject>> futures = new ArrayList<>(size);");
+    out.println("\t\tfor (int i = 0; i < size; i++) {");
+    out.println("\t\t\tFuture<JsonObject> future;");
+    // a malformed entry only fails its own call
+    out.println("\t\t\ttry {");
+    out.println("\t\t\t\tJsonObject entry = batch.getJsonObject(i);");
+    out.println("\t\t\t\tJsonObject request = entry.getJsonObject(\"request\");");
+    out.println("\t\t\t\tInteger actionId = entry.getInteger(\"actionId\");");
+    out.println("\t\t\t\tif (actionId == null) {");
+    out.println("\t\t\t\t\tthrow new IllegalStateException(\"action id not specified\");");
+    out.println("\t\t\t\t}");
+    out.println("\t\t\t\tfuture =");
+    out.println("\t\t\t\t\tswitch (actionId) {");
+
+    for (ExecutableElement ee : methodsToOverride) {
+      if (isStream(ee)) {
+        // streams are never batched
+        continue;
+      }
+
+      String paramName =
+          TypeWithImports.of(ee.getParameters().getFirst().asType()).printableName();
+      out.printf("\t\t\t\t\t\tcase %s ->%n", actionIdName(ee));
+      out.println("\t\t\t\t\t\t\tservice");
+      out.printf(
+          "\t\t\t\t\t\t\t\t.%s(request != null ? %s.fromJson(request) : null)%n",
+          ee.getSimpleName(), paramName);
+      out.println("\t\t\t\t\t\t\t\t.map(res -> res != null ? res.toJson() : null);");
+    }
+
+    out.println(
+        "\t\t\t\t\t\tdefault -> Future.failedFuture(\"Invalid action id: \" + actionId);");
+    out.println("\t\t\t\t\t};");
+    out.println("\t\t\t} catch (Exception e) {");
+    out.println("\t\t\t\tfuture = Future.failedFuture(e);");
+    out.println("\t\t\t}");
+    out.println("\t\t\tfutures.add(future);");
+    out.println("\t\t}");
+    out.println();
+    out.println("\t\tAtomicInteger remaining = new AtomicInteger(size);");
+    out.println("\t\tfor (Future<JsonObject> future : futures) {");
+    out.println("\t\t\tfuture.onComplete(");
+    out.println("\t\t\t\tignore -> {");
+    out.println("\t\t\t\t\tif (remaining.decrementAndGet() == 0) {");
+    out.println("\t\t\t\t\t\treplyBatch(msg, futures);");
+    out.println("\t\t\t\t\t}");
+    out.println("\t\t\t\t});");
+    out.println("\t\t}");
+    out.println("\t\tif (size == 0) {");
+    out.println("\t\t\treplyBatch(msg, futures);");
+    out.println("\t\t}");
+    out.println("\t}");
+    out.println();
+
+    out.println(
+        "\tprivate void replyBatch(Message<JsonObject> msg, List<Future<JsonObject>> futures) {");
+    out.println("\t\tJsonArray results = new JsonArray(new ArrayList<>(futures.size()));");
+    out.println("\t\tfor (Future<JsonObject> future : futures) {");
+    out.println("\t\t\tif (future.succeeded()) {");
+    out.println("\t\t\t\tresults.add(new JsonObject().put(\"result\", future.result()));");
+    out.println("\t\t\t\tcontinue;");
+    out.println("\t\t\t}");
+    out.println();
+    out.println("\t\t\tThrowable cause = future.cause();");
+    out.println(
+        "\t\t\tint failureCode = cause instanceof ReplyException re ? re.failureCode() : 500;");
+    out.println(
+        "\t\t\tresults.add(new JsonObject().put(\"failureCode\", failureCode).put(\"message\","
+            + " cause.getMessage()));");
+    out.println("\t\t}");
+    out.println("\t\tmsg.reply(new JsonObject().put(\"results\", results));");
+    out.println("\t}");
+    out.println();
+  }
+
   private static String getGenericType(String in) {
     int start = in.indexOf('<') + 1;
     int end = in.indexOf('>');
@@ -33,7 +33,8 @@ final class PathParser {
     while (idx != -1) {
       int endIdx = path.indexOf('}');
       String param = path.substring(idx + 1, endIdx);
-      String[] split = param.split(":");
+      // ISO-8601 defaults contain ':'
+      String[] split = param.split(":", 2);
       if (2 != split.length) {
         throw new GenerationException("illegal path parameter: " + param);
       }
@@ -66,6 +67,12 @@ final class PathParser {
         case "double" ->
             params.add(new Param(Type.DOUBLE, name, Optional.ofNullable(defaultValue)));
         case "ts" -> params.add(new Param(Type.TIMESTAMP, name, Optional.ofNullable(defaultValue)));
+        case "ts_s" ->
+            params.add(new Param(Type.TIMESTAMP_SECONDS, name, Optional.ofNullable(defaultValue)));
+        case "ts_iso" ->
+            params.add(new Param(Type.TIMESTAMP_ISO, name, Optional.ofNullable(defaultValue)));
+        case "ts_long" ->
+            params.add(new Param(Type.TIMESTAMP_LONG, name, Optional.ofNullable(defaultValue)));
         case null, default -> throw new GenerationException("illegal path parameter type: " + type);
       }
 
@@ -85,6 +92,9 @@ final class PathParser {
     FLOAT,
     DOUBLE,
     TIMESTAMP,
+    TIMESTAMP_SECONDS,
+    TIMESTAMP_ISO,
+    TIMESTAMP_LONG,
     STRING
   }
 }
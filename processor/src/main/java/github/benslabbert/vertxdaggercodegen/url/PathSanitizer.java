@@ -22,6 +22,9 @@ final class PathSanitizer {
     path = path.replaceAll("/\\{double:([^}]+)}/", "/:$1/");
     path = path.replaceAll("/\\{boolean:([^}]+)}/", "/:$1/");
     path = path.replaceAll("/\\{ts:([^}]+)}/", "/:$1/");
+    path = path.replaceAll("/\\{ts_s:([^}]+)}/", "/:$1/");
+    path = path.replaceAll("/\\{ts_iso:([^}]+)}/", "/:$1/");
+    path = path.replaceAll("/\\{ts_long:([^}]+)}/", "/:$1/");
 
     // for the end of the path with no trailing /
     path = path.replaceAll("/\\{int:([^}]+)}", "/:$1");
@@ -31,6 +34,9 @@ final class PathSanitizer {
     path = path.replaceAll("/\\{double:([^}]+)}", "/:$1");
     path = path.replaceAll("/\\{boolean:([^}]+)}", "/:$1");
     path = path.replaceAll("/\\{ts:([^}]+)}", "/:$1");
+    path = path.replaceAll("/\\{ts_s:([^}]+)}", "/:$1");
+    path = path.replaceAll("/\\{ts_iso:([^}]+)}", "/:$1");
+    path = path.replaceAll("/\\{ts_long:([^}]+)}", "/:$1");
 
     return path;
   }
@@ -5,8 +5,12 @@ import github.benslabbert.vertxdaggercodegen.annotation.url.RestHandler;
 import github.benslabbert.vertxdaggercodegen.commons.GenerationException;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -16,13 +20,23 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeKind;
 import javax.tools.JavaFileObject;
 
 public class RestHandlerGenerator extends AbstractProcessor {
 
+  /** canonical name of the router class to generate for all handlers, no router when absent */
+  private static final String REST_ROUTER = "restRouter";
+
+  private static final String ROUTING_CONTEXT = "io.vertx.ext.web.RoutingContext";
+
+  private final List<RestRouterWriter.Route> routes = new ArrayList<>();
+  private boolean routerWritten = false;
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -35,7 +49,7 @@ public class RestHandlerGenerator extends AbstractProcessor {
 
   @Override
   public Set<String> getSupportedOptions() {
-    return Set.of();
+    return Set.of(REST_ROUTER);
   }
 
   @Override
@@ -55,6 +69,22 @@ public class RestHandlerGenerator extends AbstractProcessor {
       }
     }
 
+    String router = processingEnv.getOptions().get(REST_ROUTER);
+    if (null != router && !routes.isEmpty()) {
+      if (routerWritten) {
+        throw new GenerationException(
+            "rest handlers found after the router was generated: " + routes);
+      }
+
+      try {
+        writeRouter(router);
+      } catch (Exception e) {
+        throw new GenerationException(e);
+      }
+      routerWritten = true;
+      routes.clear();
+    }
+
     return true;
   }
 
@@ -83,6 +113,19 @@ public class RestHandlerGenerator extends AbstractProcessor {
     String generatedClassName = enclosingClassName.toString() + "_" + string + "_" + "ParamParser";
     String generatedRecordName = enclosingClassName.toString() + "_" + string + "_" + "Params";
 
+    boolean lazy = ee.getAnnotation(RestHandler.class).lazy();
+    if (lazy && parseResult.pathParams().size() + parseResult.queryParams().size() > 64) {
+      throw new GenerationException("lazy params support at most 64 parameters: " + path);
+    }
+
+    boolean routed = null != processingEnv.getOptions().get(REST_ROUTER);
+    if (routed) {
+      String parserClass = classPackage + "." + generatedClassName;
+      routes.add(route(ee, path, parseResult, parserClass, generatedRecordName));
+    }
+    // the router lives in its own package
+    String visibility = routed ? "public " : "";
+
     JavaFileObject builderFile =
         processingEnv.getFiler().createSourceFile(classPackage + "." + generatedClassName);
 
@@ -91,15 +134,12 @@ public class RestHandlerGenerator extends AbstractProcessor {
       out.println();
 
       if (!parseResult.pathParams().isEmpty() || !parseResult.queryParams().isEmpty()) {
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.IntegerParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.LongParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.RequestParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.StringParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.BooleanParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.FloatParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.DoubleParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.InstantParser;");
-        out.println("import github.benslabbert.vertxdaggercodegen.commons.web.RequestParser;");
+        if (!parseResult.pathParams().isEmpty()) {
+          out.println("import github.benslabbert.vertxdaggercodegen.commons.web.PrimitiveParser;");
+        }
+        if (!parseResult.queryParams().isEmpty()) {
+          out.println("import github.benslabbert.vertxdaggercodegen.commons.web.QueryScanner;");
+        }
         out.println("import io.vertx.ext.web.RoutingContext;");
         out.println("import java.time.Instant;");
       }
@@ -110,62 +150,276 @@ public class RestHandlerGenerator extends AbstractProcessor {
           "@Generated(value = \"%s\", date = \"%s\")%n",
           getClass().getCanonicalName(),
           LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-      out.printf("final class %s {%n", generatedClassName);
+      out.printf("%sfinal class %s {%n", visibility, generatedClassName);
       out.println();
       out.println("\tprivate " + generatedClassName + "() {}");
       out.println();
 
-      out.printf("\tstatic final String PATH = \"%s\";%n", sanitized);
+      out.printf("\t%sstatic final String PATH = \"%s\";%n", visibility, sanitized);
       out.println();
 
-      if (!parseResult.pathParams().isEmpty() || !parseResult.queryParams().isEmpty()) {
-        out.printf("\tstatic %s parse(RoutingContext ctx) {%n", generatedRecordName);
-        out.println("\t\tRequestParser rp = RequestParser.create(ctx);");
+      if (!parseResult.queryParams().isEmpty()) {
+        // names looked up by the query scanner, values are addressed by index
+        out.printf(
+            "\tprivate static final String[] QUERY = {%s};%n",
+            parseResult.queryParams().stream()
+                .map(p -> "\"" + p.name() + "\"")
+                .collect(Collectors.joining(", ")));
         out.println();
+      }
 
-        printGetParams(parseResult, out);
-
-        out.println();
-        out.printf("\t\treturn new %s(", generatedRecordName);
-        String args =
-            Stream.concat(parseResult.pathParams().stream(), parseResult.queryParams().stream())
-                .map(PathParser.Param::name)
-                .collect(Collectors.joining(", "));
-        out.printf("%s", args);
-        out.println(");");
+      if (!parseResult.pathParams().isEmpty() || !parseResult.queryParams().isEmpty()) {
+        out.printf(
+            "\t%sstatic %s parse(RoutingContext ctx) {%n", visibility, generatedRecordName);
+        if (lazy) {
+          out.printf("\t\treturn new %s(ctx);%n", generatedRecordName);
+        } else {
+          printGetParams(parseResult, out);
+
+          out.println();
+          out.printf("\t\treturn new %s(", generatedRecordName);
+          String args =
+              Stream.concat(parseResult.pathParams().stream(), parseResult.queryParams().stream())
+                  .map(PathParser.Param::name)
+                  .collect(Collectors.joining(", "));
+          out.printf("%s", args);
+          out.println(");");
+        }
         out.println("\t}");
         out.println();
 
-        printRecord(out, generatedRecordName, parseResult);
+        if (routed && !parseResult.pathParams().isEmpty()) {
+          printRoutedParse(out, generatedRecordName, parseResult, lazy);
+        }
+
+        if (lazy) {
+          printLazyParams(out, visibility, generatedRecordName, parseResult, routed);
+        } else {
+          printRecord(out, visibility, generatedRecordName, parseResult);
+        }
       }
 
       out.println("}");
     }
   }
 
+  private RestRouterWriter.Route route(
+      ExecutableElement ee,
+      String path,
+      PathParser.ParseResult parseResult,
+      String parserClass,
+      String recordName) {
+    Element enclosingElement = ee.getEnclosingElement();
+    String handler = enclosingElement.getSimpleName() + "." + ee.getSimpleName();
+
+    if (!ee.getModifiers().contains(Modifier.PUBLIC)
+        || ee.getModifiers().contains(Modifier.STATIC)
+        || !enclosingElement.getModifiers().contains(Modifier.PUBLIC)) {
+      throw new GenerationException(
+          "routed rest handlers must be public instance methods of public classes: " + handler);
+    }
+
+    List<? extends VariableElement> parameters = ee.getParameters();
+    boolean hasRoutingContext =
+        !parameters.isEmpty() && ROUTING_CONTEXT.equals(parameters.getFirst().asType().toString());
+    boolean hasParams =
+        !parseResult.pathParams().isEmpty() || !parseResult.queryParams().isEmpty();
+
+    boolean withParams;
+    if (hasRoutingContext && 1 == parameters.size()) {
+      if (!parseResult.pathParams().isEmpty()) {
+        throw new GenerationException(
+            "routed rest handlers with path parameters must accept the params record: " + handler);
+      }
+      withParams = false;
+    } else if (hasRoutingContext
+        && hasParams
+        && 2 == parameters.size()
+        && parameters.get(1).asType().toString().endsWith(recordName)) {
+      withParams = true;
+    } else {
+      throw new GenerationException(
+          "routed rest handlers must accept (RoutingContext) or (RoutingContext, "
+              + recordName
+              + "): "
+              + handler);
+    }
+
+    int queryStart = path.indexOf('?');
+    String pathOnly = -1 == queryStart ? path : path.substring(0, queryStart);
+    return new RestRouterWriter.Route(
+        enclosingElement.asType().toString(),
+        ee.getSimpleName().toString(),
+        parserClass,
+        pathOnly,
+        withParams);
+  }
+
+  private void writeRouter(String router) throws IOException {
+    int idx = router.lastIndexOf('.');
+    if (-1 == idx) {
+      throw new GenerationException("rest router must be a canonical class name: " + router);
+    }
+
+    JavaFileObject routerFile = processingEnv.getFiler().createSourceFile(router);
+    try (PrintWriter out = new PrintWriter(routerFile.openWriter())) {
+      RestRouterWriter.write(
+          out,
+          router.substring(0, idx),
+          router.substring(idx + 1),
+          String.format(
+              "@Generated(value = \"%s\", date = \"%s\")",
+              getClass().getCanonicalName(),
+              LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME)),
+          routes);
+    }
+  }
+
+  /** path parameters are already parsed by the router, only the query is read from the context */
+  private static void printRoutedParse(
+      PrintWriter out,
+      String generatedRecordName,
+      PathParser.ParseResult parseResult,
+      boolean lazy) {
+    String pathArgs =
+        parseResult.pathParams().stream()
+            .map(p -> recordType(p.type()) + " " + p.name())
+            .collect(Collectors.joining(", "));
+
+    out.printf(
+        "\tpublic static %s parse(RoutingContext ctx, %s) {%n", generatedRecordName, pathArgs);
+    if (lazy) {
+      out.printf(
+          "\t\treturn new %s(ctx, %s);%n",
+          generatedRecordName,
+          parseResult.pathParams().stream()
+              .map(PathParser.Param::name)
+              .collect(Collectors.joining(", ")));
+      out.println("\t}");
+      out.println();
+      return;
+    }
+
+    if (!parseResult.queryParams().isEmpty()) {
+      printGetParams(new PathParser.ParseResult(parseResult.queryParams(), List.of()), out);
+      out.println();
+    }
+
+    out.printf("\t\treturn new %s(", generatedRecordName);
+    String args =
+        Stream.concat(parseResult.pathParams().stream(), parseResult.queryParams().stream())
+            .map(PathParser.Param::name)
+            .collect(Collectors.joining(", "));
+    out.printf("%s", args);
+    out.println(");");
+    out.println("\t}");
+    out.println();
+  }
+
+  private static String recordType(PathParser.Type type) {
+    return switch (type) {
+      case INT -> "int";
+      case LONG -> "long";
+      case STRING -> "String";
+      case BOOLEAN -> "boolean";
+      case FLOAT -> "float";
+      case DOUBLE -> "double";
+      case TIMESTAMP, TIMESTAMP_SECONDS, TIMESTAMP_ISO -> "Instant";
+      case TIMESTAMP_LONG -> "long";
+    };
+  }
+
+  /**
+   * view over the routing context with the accessors of the params record, each parameter is parsed
+   * on first access and kept in a field, parsed parameters are tracked in a bit mask <br>
+   * like the routing context it is not thread safe
+   */
+  private static void printLazyParams(
+      PrintWriter out,
+      String visibility,
+      String generatedRecordName,
+      PathParser.ParseResult parseResult,
+      boolean routed) {
+    List<PathParser.Param> params =
+        Stream.concat(parseResult.pathParams().stream(), parseResult.queryParams().stream())
+            .toList();
+    boolean hasQuery = !parseResult.queryParams().isEmpty();
+
+    out.printf("\t%sstatic final class %s {%n", visibility, generatedRecordName);
+    out.println();
+    out.println("\t\tprivate final RoutingContext _ctx;");
+    if (hasQuery) {
+      out.println("\t\tprivate QueryScanner _query;");
+    }
+    out.println("\t\tprivate long _parsed;");
+    for (PathParser.Param param : params) {
+      out.printf("\t\tprivate %s %s;%n", recordType(param.type()), param.name());
+    }
+    out.println();
+
+    out.printf("\t\t%s(RoutingContext ctx) {%n", generatedRecordName);
+    out.println("\t\t\tthis._ctx = ctx;");
+    out.println("\t\t}");
+    out.println();
+
+    if (routed && !parseResult.pathParams().isEmpty()) {
+      // path parameters already parsed by the router
+      out.printf(
+          "\t\t%s(RoutingContext ctx, %s) {%n",
+          generatedRecordName,
+          parseResult.pathParams().stream()
+              .map(p -> recordType(p.type()) + " " + p.name())
+              .collect(Collectors.joining(", ")));
+      out.println("\t\t\tthis._ctx = ctx;");
+      for (PathParser.Param param : parseResult.pathParams()) {
+        out.printf("\t\t\tthis.%s = %s;%n", param.name(), param.name());
+      }
+      out.printf(
+          "\t\t\tthis._parsed = -1L >>> %d;%n", Long.SIZE - parseResult.pathParams().size());
+      out.println("\t\t}");
+      out.println();
+    }
+
+    for (int i = 0; i < params.size(); i++) {
+      PathParser.Param param = params.get(i);
+      int queryIndex = i - parseResult.pathParams().size();
+      String expression =
+          queryIndex < 0
+              ? parseExpression(param, "_ctx.pathParam(\"" + param.name() + "\")")
+              : queryExpression(param, "_query()", queryIndex);
+
+      out.printf("\t\tpublic %s %s() {%n", recordType(param.type()), param.name());
+      out.printf("\t\t\tif (0L == (_parsed & (1L << %d))) {%n", i);
+      out.printf("\t\t\t\t%s = %s;%n", param.name(), expression);
+      out.printf("\t\t\t\t_parsed |= 1L << %d;%n", i);
+      out.println("\t\t\t}");
+      out.printf("\t\t\treturn %s;%n", param.name());
+      out.println("\t\t}");
+      out.println();
+    }
+
+    if (hasQuery) {
+      out.println("\t\tprivate QueryScanner _query() {");
+      out.println("\t\t\tif (null == _query) {");
+      out.println("\t\t\t\t_query = QueryScanner.scan(_ctx.request().query(), QUERY);");
+      out.println("\t\t\t}");
+      out.println("\t\t\treturn _query;");
+      out.println("\t\t}");
+    }
+    out.println("\t}");
+  }
+
   private static void printRecord(
-      PrintWriter out, String generatedRecordName, PathParser.ParseResult parseResult) {
+      PrintWriter out,
+      String visibility,
+      String generatedRecordName,
+      PathParser.ParseResult parseResult) {
     // print the generated record type
-    out.printf("\trecord %s(", generatedRecordName);
+    out.printf("\t%srecord %s(", visibility, generatedRecordName);
 
     String recordArgs =
         Stream.concat(parseResult.pathParams().stream(), parseResult.queryParams().stream())
-            .map(
-                p -> {
-                  String name = p.name();
-                  String type =
-                      switch (p.type()) {
-                        case INT -> "int";
-                        case LONG -> "long";
-                        case STRING -> "String";
-                        case BOOLEAN -> "boolean";
-                        case FLOAT -> "float";
-                        case DOUBLE -> "double";
-                        case TIMESTAMP -> "Instant";
-                      };
-
-                  return type + " " + name;
-                })
+            .map(p -> recordType(p.type()) + " " + p.name())
             .collect(Collectors.joining(", "));
 
     out.printf("%s", recordArgs);
@@ -173,64 +427,98 @@ public class RestHandlerGenerator extends AbstractProcessor {
   }
 
   private static void printGetParams(PathParser.ParseResult parseResult, PrintWriter out) {
+    if (!parseResult.queryParams().isEmpty()) {
+      out.println("\t\tQueryScanner _query = QueryScanner.scan(ctx.request().query(), QUERY);");
+    }
+
     for (PathParser.Param pathParam : parseResult.pathParams()) {
-      String name = pathParam.name();
-      String type =
-          switch (pathParam.type()) {
-            case INT -> "Integer";
-            case LONG -> "Long";
-            case BOOLEAN -> "Boolean";
-            case FLOAT -> "Float";
-            case DOUBLE -> "Double";
-            case TIMESTAMP -> "Instant";
-            case STRING -> "String";
-          };
-
-      Optional<String> optional = pathParam.defaultValue();
-      if (optional.isPresent()) {
-        if (pathParam.type() == PathParser.Type.STRING) {
-          out.printf(
-              "\t\t%s %s = rp.getPathParam(\"%s\", \"%s\", %sParser.create());%n",
-              type, name, name, optional.get(), type);
-        } else {
-          out.printf(
-              "\t\t%s %s = rp.getPathParam(\"%s\", %s, %sParser.create());%n",
-              type, name, name, optional.get(), type);
-        }
-      } else {
-        out.printf(
-            "\t\t%s %s = rp.getPathParam(\"%s\", %sParser.create());%n", type, name, name, type);
-      }
+      String value = "ctx.pathParam(\"" + pathParam.name() + "\")";
+      printGetParam(out, pathParam, parseExpression(pathParam, value));
     }
 
-    for (PathParser.Param queryParam : parseResult.queryParams()) {
-      String name = queryParam.name();
-      String type =
-          switch (queryParam.type()) {
-            case INT -> "Integer";
-            case LONG -> "Long";
-            case BOOLEAN -> "Boolean";
-            case FLOAT -> "Float";
-            case DOUBLE -> "Double";
-            case TIMESTAMP -> "Instant";
-            case STRING -> "String";
-          };
-
-      Optional<String> optional = queryParam.defaultValue();
-      if (optional.isPresent()) {
-        if (queryParam.type() == PathParser.Type.STRING) {
-          out.printf(
-              "\t\t%s %s = rp.getQueryParam(\"%s\", \"%s\", %sParser.create());%n",
-              type, name, name, optional.get(), type);
-        } else {
-          out.printf(
-              "\t\t%s %s = rp.getQueryParam(\"%s\", %s, %sParser.create());%n",
-              type, name, name, optional.get(), type);
-        }
-      } else {
-        out.printf(
-            "\t\t%s %s = rp.getQueryParam(\"%s\", %sParser.create());%n", type, name, name, type);
-      }
+    List<PathParser.Param> queryParams = parseResult.queryParams();
+    for (int i = 0; i < queryParams.size(); i++) {
+      printGetParam(out, queryParams.get(i), queryExpression(queryParams.get(i), "_query", i));
+    }
+  }
+
+  private static void printGetParam(PrintWriter out, PathParser.Param param, String expression) {
+    out.printf("\t\t%s %s = %s;%n", recordType(param.type()), param.name(), expression);
+  }
+
+  private static String parseExpression(PathParser.Param param, String value) {
+    String method = "PrimitiveParser." + parseMethod(param.type());
+    String name = "\"" + param.name() + "\"";
+    Optional<String> defaultValue = param.defaultValue();
+
+    if (defaultValue.isEmpty()) {
+      return switch (param.type()) {
+        case STRING -> value;
+        case BOOLEAN -> method + "(" + value + ")";
+        default -> method + "(" + name + ", " + value + ")";
+      };
+    }
+
+    String d = defaultValue.get();
+    return switch (param.type()) {
+      case STRING -> method + "(" + value + ", \"" + d + "\")";
+      case BOOLEAN, INT, LONG -> method + "(" + value + ", " + d + ")";
+      case TIMESTAMP, TIMESTAMP_SECONDS, TIMESTAMP_LONG ->
+          method + "(" + value + ", " + longLiteral(d) + ")";
+      case TIMESTAMP_ISO -> method + "(" + value + ", " + isoMillis(param.name(), d) + ")";
+      case FLOAT, DOUBLE -> method + "(" + name + ", " + value + ", " + d + ")";
+    };
+  }
+
+  /** same defaults as {@link #parseExpression}, the value is addressed by its index in QUERY */
+  private static String queryExpression(PathParser.Param param, String scanner, int index) {
+    String method = scanner + "." + parseMethod(param.type());
+    String name = "\"" + param.name() + "\"";
+    Optional<String> defaultValue = param.defaultValue();
+
+    if (defaultValue.isEmpty()) {
+      return switch (param.type()) {
+        case STRING -> scanner + ".value(" + index + ")";
+        case BOOLEAN -> method + "(" + index + ")";
+        default -> method + "(" + index + ", " + name + ")";
+      };
+    }
+
+    String d = defaultValue.get();
+    return switch (param.type()) {
+      case STRING -> method + "(" + index + ", \"" + d + "\")";
+      case BOOLEAN, INT, LONG -> method + "(" + index + ", " + d + ")";
+      case TIMESTAMP, TIMESTAMP_SECONDS, TIMESTAMP_LONG ->
+          method + "(" + index + ", " + longLiteral(d) + ")";
+      case TIMESTAMP_ISO -> method + "(" + index + ", " + isoMillis(param.name(), d) + ")";
+      case FLOAT, DOUBLE -> method + "(" + index + ", " + name + ", " + d + ")";
+    };
+  }
+
+  private static String parseMethod(PathParser.Type type) {
+    return switch (type) {
+      case INT -> "parseInt";
+      case LONG, TIMESTAMP_LONG -> "parseLong";
+      case FLOAT -> "parseFloat";
+      case DOUBLE -> "parseDouble";
+      case BOOLEAN -> "parseBoolean";
+      case TIMESTAMP -> "parseInstant";
+      case TIMESTAMP_SECONDS -> "parseEpochSecond";
+      case TIMESTAMP_ISO -> "parseIsoInstant";
+      case STRING -> "parseString";
+    };
+  }
+
+  private static String longLiteral(String value) {
+    return value.endsWith("L") || value.endsWith("l") ? value : value + "L";
+  }
+
+  /** ISO-8601 defaults are resolved while generating and passed as unix millis */
+  private static String isoMillis(String name, String value) {
+    try {
+      return Instant.parse(value).toEpochMilli() + "L";
+    } catch (DateTimeParseException e) {
+      throw new GenerationException("illegal ISO-8601 default for " + name + ": " + value);
     }
   }
 
@@ -0,0 +1,404 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.url;
+
+import github.benslabbert.vertxdaggercodegen.commons.GenerationException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * writes a single router for all rest handlers as a radix trie of generated methods, one method per
+ * trie node <br>
+ * literal edges are compared in place, chains of literal only nodes are merged into one edge <br>
+ * typed segments are checked and parsed while matching and passed down as method arguments, a node
+ * method has one argument per path parameter above it <br>
+ * literal edges are tried before parameters, parameters are tried from the most to the least
+ * specific type, string last, a segment only matches a parameter whose type it parses as and an
+ * empty segment matches none
+ */
+final class RestRouterWriter {
+
+  private static final List<PathParser.Type> PARAM_ORDER =
+      List.of(
+          PathParser.Type.BOOLEAN,
+          PathParser.Type.INT,
+          PathParser.Type.LONG,
+          PathParser.Type.TIMESTAMP,
+          PathParser.Type.TIMESTAMP_LONG,
+          PathParser.Type.TIMESTAMP_SECONDS,
+          PathParser.Type.FLOAT,
+          PathParser.Type.DOUBLE,
+          PathParser.Type.TIMESTAMP_ISO,
+          PathParser.Type.STRING);
+
+  private RestRouterWriter() {}
+
+  /**
+   * a routed handler method
+   *
+   * @param handlerClass canonical name of the class declaring the handler
+   * @param methodName the handler method
+   * @param parserClass canonical name of the generated param parser
+   * @param path the path of the handler without the query
+   * @param withParams true when the handler takes the generated params record
+   */
+  record Route(
+      String handlerClass,
+      String methodName,
+      String parserClass,
+      String path,
+      boolean withParams) {}
+
+  private static final class Node {
+
+    private final String prefix;
+    private final List<PathParser.Type> captures;
+    private final Map<String, Node> literals = new LinkedHashMap<>();
+    private final Map<PathParser.Type, Node> params = new TreeMap<>();
+    private Route route;
+    private int id;
+
+    private Node(String prefix, List<PathParser.Type> captures) {
+      this.prefix = prefix;
+      this.captures = captures;
+    }
+
+    private Node literal(String segment) {
+      return literals.computeIfAbsent(segment, s -> new Node(prefix + "/" + s, captures));
+    }
+
+    private Node param(PathParser.Type type) {
+      return params.computeIfAbsent(
+          type,
+          t -> {
+            List<PathParser.Type> c = new ArrayList<>(captures);
+            c.add(t);
+            return new Node(prefix + "/{" + typeName(t) + "}", List.copyOf(c));
+          });
+    }
+  }
+
+  static void write(
+      PrintWriter out, String packageName, String className, String generator, List<Route> routes) {
+    Node root = new Node("", List.of());
+    for (Route route : routes) {
+      insert(root, route);
+    }
+    compress(root);
+
+    List<Node> nodes = new ArrayList<>();
+    number(root, nodes);
+
+    Map<String, String> fields = handlerFields(routes);
+    String prefix = packageName + ".";
+
+    out.printf("package %s;%n", packageName);
+    out.println();
+    out.println("import github.benslabbert.vertxdaggercodegen.commons.web.RoutePath;");
+    out.println("import io.vertx.core.Handler;");
+    out.println("import io.vertx.ext.web.RoutingContext;");
+    out.println("import java.time.Instant;");
+    out.println("import javax.annotation.processing.Generated;");
+    out.println("import javax.inject.Inject;");
+    out.println();
+
+    out.println(generator);
+    out.printf("public final class %s implements Handler<RoutingContext> {%n", className);
+    out.println();
+
+    for (var entry : fields.entrySet()) {
+      out.printf(
+          "\tprivate final %s %s;%n", simplify(prefix, entry.getKey()), entry.getValue());
+    }
+    if (!fields.isEmpty()) {
+      out.println();
+    }
+
+    out.println("\t@Inject");
+    out.printf(
+        "\tpublic %s(%s) {%n",
+        className,
+        fields.entrySet().stream()
+            .map(e -> simplify(prefix, e.getKey()) + " " + e.getValue())
+            .collect(Collectors.joining(", ")));
+    for (String field : fields.values()) {
+      out.printf("\t\tthis.%s = %s;%n", field, field);
+    }
+    out.println("\t}");
+    out.println();
+
+    out.println("\t@Override");
+    out.println("\tpublic void handle(RoutingContext ctx) {");
+    out.println("\t\tString path = ctx.normalizedPath();");
+    out.println("\t\tint start = RoutePath.start(path, ctx.mountPoint());");
+    out.println("\t\tif (-1 == start || !n0(ctx, path, start)) {");
+    out.println("\t\t\tctx.next();");
+    out.println("\t\t}");
+    out.println("\t}");
+
+    for (Node node : nodes) {
+      out.println();
+      printNode(out, node, fields, prefix);
+    }
+
+    out.println("}");
+  }
+
+  private static void insert(Node root, Route route) {
+    Node node = root;
+    for (String segment : route.path().split("/")) {
+      if (segment.isEmpty()) {
+        continue;
+      }
+
+      int open = segment.indexOf('{');
+      if (-1 == open) {
+        node = node.literal(segment);
+        continue;
+      }
+
+      if (0 != open || '}' != segment.charAt(segment.length() - 1)) {
+        throw new GenerationException(
+            "path parameters must be a whole path segment to be routed: " + route.path());
+      }
+
+      PathParser.ParseResult parsed = PathParser.parse(segment);
+      node = node.param(parsed.pathParams().getFirst().type());
+    }
+
+    if (null != node.route) {
+      throw new GenerationException(
+          "duplicate route "
+              + node.prefix
+              + " for "
+              + node.route.handlerClass()
+              + "."
+              + node.route.methodName()
+              + " and "
+              + route.handlerClass()
+              + "."
+              + route.methodName());
+    }
+    node.route = route;
+  }
+
+  private static void compress(Node node) {
+    Map<String, Node> merged = new LinkedHashMap<>();
+    for (var entry : node.literals.entrySet()) {
+      String literal = entry.getKey();
+      Node child = entry.getValue();
+      while (null == child.route && child.params.isEmpty() && 1 == child.literals.size()) {
+        var only = child.literals.entrySet().iterator().next();
+        literal = literal + "/" + only.getKey();
+        child = only.getValue();
+      }
+      merged.put(literal, child);
+    }
+    node.literals.clear();
+    node.literals.putAll(merged);
+
+    node.literals.values().forEach(RestRouterWriter::compress);
+    node.params.values().forEach(RestRouterWriter::compress);
+  }
+
+  private static void number(Node node, List<Node> nodes) {
+    node.id = nodes.size();
+    nodes.add(node);
+    node.literals.values().forEach(n -> number(n, nodes));
+    node.params.values().forEach(n -> number(n, nodes));
+  }
+
+  private static Map<String, String> handlerFields(List<Route> routes) {
+    Map<String, String> fields = new TreeMap<>();
+    List<String> names = new ArrayList<>();
+    for (String handlerClass : routes.stream().map(Route::handlerClass).sorted().toList()) {
+      if (fields.containsKey(handlerClass)) {
+        continue;
+      }
+
+      String simpleName = handlerClass.substring(handlerClass.lastIndexOf('.') + 1);
+      String name = simpleName.substring(0, 1).toLowerCase() + simpleName.substring(1);
+      String unique = name;
+      for (int i = 1; names.contains(unique); i++) {
+        unique = name + i;
+      }
+      names.add(unique);
+      fields.put(handlerClass, unique);
+    }
+    return fields;
+  }
+
+  private static void printNode(
+      PrintWriter out, Node node, Map<String, String> fields, String prefix) {
+    String captureParams =
+        IntStream.range(0, node.captures.size())
+            .mapToObj(i -> ", " + javaType(node.captures.get(i)) + " p" + i)
+            .collect(Collectors.joining());
+    String captureArgs =
+        IntStream.range(0, node.captures.size())
+            .mapToObj(i -> ", p" + i)
+            .collect(Collectors.joining());
+
+    out.printf("\t// %s%n", node.prefix.isEmpty() ? "/" : node.prefix);
+    out.printf(
+        "\tprivate boolean n%d(RoutingContext ctx, String path, int i%s) {%n",
+        node.id, captureParams);
+
+    out.println("\t\tif (RoutePath.isEnd(path, i)) {");
+    if (null == node.route) {
+      out.println("\t\t\treturn false;");
+    } else {
+      printInvoke(out, node.route, fields, prefix, captureArgs);
+      out.println("\t\t\treturn true;");
+    }
+    out.println("\t\t}");
+
+    if (node.literals.isEmpty() && node.params.isEmpty()) {
+      out.println();
+      out.println("\t\treturn false;");
+      out.println("\t}");
+      return;
+    }
+
+    out.println();
+    out.println("\t\tint s = i + 1;");
+
+    for (var entry : node.literals.entrySet()) {
+      String literal = entry.getKey();
+      out.printf(
+          "\t\tif (RoutePath.matches(path, s, \"%s\") && n%d(ctx, path, s + %d%s)) {%n",
+          literal.replace("\\", "\\\\").replace("\"", "\\\""),
+          entry.getValue().id,
+          literal.length(),
+          captureArgs);
+      out.println("\t\t\treturn true;");
+      out.println("\t\t}");
+    }
+
+    if (!node.params.isEmpty()) {
+      if (!node.literals.isEmpty()) {
+        out.println();
+      }
+      out.println("\t\tint e = RoutePath.segmentEnd(path, s);");
+      out.println("\t\tif (e == s) {");
+      out.println("\t\t\treturn false;");
+      out.println("\t\t}");
+
+      for (PathParser.Type type : PARAM_ORDER) {
+        Node child = node.params.get(type);
+        if (null == child) {
+          continue;
+        }
+
+        printParam(out, type, child.id, captureArgs);
+      }
+    }
+
+    out.println();
+    out.println("\t\treturn false;");
+    out.println("\t}");
+  }
+
+  private static void printParam(PrintWriter out, PathParser.Type type, int id, String args) {
+    String call = "n" + id + "(ctx, path, e" + args + ", ";
+    switch (type) {
+      case INT ->
+          out.printf(
+              "\t\tif (RoutePath.isInt(path, s, e) && %sRoutePath.parseInt(path, s, e))) {%n",
+              call);
+      case LONG, TIMESTAMP_LONG ->
+          out.printf(
+              "\t\tif (RoutePath.isLong(path, s, e) && %sRoutePath.parseLong(path, s, e))) {%n",
+              call);
+      case TIMESTAMP ->
+          out.printf(
+              "\t\tif (RoutePath.isLong(path, s, e)"
+                  + " && %sInstant.ofEpochMilli(RoutePath.parseLong(path, s, e)))) {%n",
+              call);
+      case BOOLEAN ->
+          out.printf(
+              "\t\tif (RoutePath.isBoolean(path, s, e)"
+                  + " && %sRoutePath.parseBoolean(path, s, e))) {%n",
+              call);
+      case FLOAT -> {
+        out.printf("\t\tfloat f%d = RoutePath.parseFloat(path, s, e);%n", id);
+        out.printf("\t\tif (!Float.isNaN(f%d) && %sf%d)) {%n", id, call, id);
+      }
+      case DOUBLE -> {
+        out.printf("\t\tdouble d%d = RoutePath.parseDouble(path, s, e);%n", id);
+        out.printf("\t\tif (!Double.isNaN(d%d) && %sd%d)) {%n", id, call, id);
+      }
+      case TIMESTAMP_SECONDS -> {
+        out.printf("\t\tInstant t%d = RoutePath.parseEpochSecond(path, s, e);%n", id);
+        out.printf("\t\tif (null != t%d && %st%d)) {%n", id, call, id);
+      }
+      case TIMESTAMP_ISO -> {
+        out.printf("\t\tInstant t%d = RoutePath.parseIsoInstant(path, s, e);%n", id);
+        out.printf("\t\tif (null != t%d && %st%d)) {%n", id, call, id);
+      }
+      case STRING -> out.printf("\t\tif (%sRoutePath.decode(path, s, e))) {%n", call);
+    }
+    out.println("\t\t\treturn true;");
+    out.println("\t\t}");
+  }
+
+  private static void printInvoke(
+      PrintWriter out,
+      Route route,
+      Map<String, String> fields,
+      String prefix,
+      String captureArgs) {
+    String field = fields.get(route.handlerClass());
+    if (!route.withParams()) {
+      out.printf("\t\t\t%s.%s(ctx);%n", field, route.methodName());
+      return;
+    }
+
+    out.printf(
+        "\t\t\t%s.%s(ctx, %s.parse(ctx%s));%n",
+        field, route.methodName(), simplify(prefix, route.parserClass()), captureArgs);
+  }
+
+  /** classes in the package of the router are referenced by simple name */
+  private static String simplify(String prefix, String canonicalName) {
+    if (!canonicalName.startsWith(prefix)) {
+      return canonicalName;
+    }
+
+    String simpleName = canonicalName.substring(prefix.length());
+    return -1 == simpleName.indexOf('.') ? simpleName : canonicalName;
+  }
+
+  private static String javaType(PathParser.Type type) {
+    return switch (type) {
+      case INT -> "int";
+      case LONG -> "long";
+      case BOOLEAN -> "boolean";
+      case FLOAT -> "float";
+      case DOUBLE -> "double";
+      case TIMESTAMP, TIMESTAMP_SECONDS, TIMESTAMP_ISO -> "Instant";
+      case TIMESTAMP_LONG -> "long";
+      case STRING -> "String";
+    };
+  }
+
+  private static String typeName(PathParser.Type type) {
+    return switch (type) {
+      case INT -> "int";
+      case LONG -> "long";
+      case BOOLEAN -> "boolean";
+      case FLOAT -> "float";
+      case DOUBLE -> "double";
+      case TIMESTAMP -> "ts";
+      case TIMESTAMP_SECONDS -> "ts_s";
+      case TIMESTAMP_ISO -> "ts_iso";
+      case TIMESTAMP_LONG -> "ts_long";
+      case STRING -> "string";
+    };
+  }
+}
@@ -21,4 +21,28 @@ class AdviceGeneratorTest {
         .processedWith(new AdviceGenerator())
         .compilesWithoutError();
   }
+
+  @Test
+  void methodAdvice() {
+    URL resource = this.getClass().getClassLoader().getResource("MethodAdviceTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new AdviceGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void timed() {
+    URL resource = this.getClass().getClassLoader().getResource("TimedAdviceTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .withCompilerOptions(
+            "-AprocessCustom=github.benslabbert.vertxdaggercodegen.annotation.advice.Timed")
+        .processedWith(new AdviceGenerator())
+        .compilesWithoutError();
+  }
 }
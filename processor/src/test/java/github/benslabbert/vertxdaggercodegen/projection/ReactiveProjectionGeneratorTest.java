@@ -21,4 +21,27 @@ class ReactiveProjectionGeneratorTest {
         .processedWith(new ReactiveProjectionGenerator())
         .compilesWithoutError();
   }
+
+  @Test
+  void builder() {
+    URL resource = this.getClass().getClassLoader().getResource("ReactiveProjectionClassTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ReactiveProjectionGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void stream() {
+    URL resource =
+        this.getClass().getClassLoader().getResource("ReactiveProjectionStreamTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ReactiveProjectionGenerator())
+        .compilesWithoutError();
+  }
 }
@@ -21,4 +21,26 @@ class SecuredProxyGeneratorTest {
         .processedWith(new SecuredProxyGenerator())
         .compilesWithoutError();
   }
+
+  @Test
+  void delegate() {
+    URL resource = this.getClass().getClassLoader().getResource("SecuredProxyDelegateTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new SecuredProxyGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void inherited() {
+    URL resource = this.getClass().getClassLoader().getResource("SecuredProxyInheritedTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new SecuredProxyGenerator())
+        .compilesWithoutError();
+  }
 }
@@ -0,0 +1,68 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.serviceproxy;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.testing.compile.JavaFileObjects;
+import com.google.testing.compile.JavaSourceSubjectFactory;
+import java.net.URL;
+import org.junit.jupiter.api.Test;
+
+class ServiceProxyGeneratorTest {
+
+  @Test
+  void json() {
+    URL resource = this.getClass().getClassLoader().getResource("ServiceProxyTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ServiceProxyGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void codec() {
+    URL resource = this.getClass().getClassLoader().getResource("ServiceProxyCodecTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ServiceProxyGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void batch() {
+    URL resource = this.getClass().getClassLoader().getResource("ServiceProxyBatchTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ServiceProxyGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void stream() {
+    URL resource = this.getClass().getClassLoader().getResource("ServiceProxyStreamTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ServiceProxyGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void local() {
+    URL resource = this.getClass().getClassLoader().getResource("ServiceProxyLocalTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new ServiceProxyGenerator())
+        .compilesWithoutError();
+  }
+}
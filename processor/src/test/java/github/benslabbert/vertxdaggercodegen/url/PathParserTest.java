@@ -87,4 +87,21 @@ class PathParserTest {
     assertThat(parseResult.pathParams().get(1).type()).isEqualTo(PathParser.Type.STRING);
     assertThat(parseResult.pathParams().get(1).defaultValue()).hasValue("abc");
   }
+
+  @Test
+  void timestampsTest() {
+    String path =
+        "/range/{ts_iso:from}/{ts_s:to}?since={ts_iso:since=2024-02-18T14:41:29Z}&at={ts_long:at}";
+    PathParser.ParseResult parseResult = PathParser.parse(path);
+
+    assertThat(parseResult).isNotNull();
+    assertThat(parseResult.pathParams()).hasSize(2);
+    assertThat(parseResult.pathParams().get(0).type()).isEqualTo(PathParser.Type.TIMESTAMP_ISO);
+    assertThat(parseResult.pathParams().get(1).type())
+        .isEqualTo(PathParser.Type.TIMESTAMP_SECONDS);
+    assertThat(parseResult.queryParams()).hasSize(2);
+    assertThat(parseResult.queryParams().get(0).type()).isEqualTo(PathParser.Type.TIMESTAMP_ISO);
+    assertThat(parseResult.queryParams().get(0).defaultValue()).hasValue("2024-02-18T14:41:29Z");
+    assertThat(parseResult.queryParams().get(1).type()).isEqualTo(PathParser.Type.TIMESTAMP_LONG);
+  }
 }
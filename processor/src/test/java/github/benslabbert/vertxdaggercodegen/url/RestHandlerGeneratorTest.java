@@ -32,4 +32,38 @@ class RestHandlerGeneratorTest {
         .processedWith(new RestHandlerGenerator())
         .compilesWithoutError();
   }
+
+  @Test
+  void timestamps() {
+    URL resource = this.getClass().getClassLoader().getResource("RestHandlerTimestampTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new RestHandlerGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void lazy() {
+    URL resource = this.getClass().getClassLoader().getResource("RestHandlerLazyTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .processedWith(new RestHandlerGenerator())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void router() {
+    URL resource = this.getClass().getClassLoader().getResource("RestHandlerRouterTest.java");
+    assertThat(resource).isNotNull();
+
+    assertAbout(JavaSourceSubjectFactory.javaSource())
+        .that(JavaFileObjects.forResource(resource))
+        .withCompilerOptions("-ArestRouter=my.test.router.RestRouter")
+        .processedWith(new RestHandlerGenerator())
+        .compilesWithoutError();
+  }
 }
@@ -0,0 +1,158 @@
+/* Licensed under Apache-2.0 2024. */
+package github.benslabbert.vertxdaggercodegen.url;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/** runs the generated router against request paths */
+class RestRouterWriterTest {
+
+  private static Handler<RoutingContext> router;
+  private static List<String> calls;
+
+  @BeforeAll
+  @SuppressWarnings("unchecked")
+  static void compile() throws Exception {
+    URL resource =
+        RestRouterWriterTest.class.getClassLoader().getResource("RestRouterRuntimeTest.java");
+    assertThat(resource).isNotNull();
+
+    Compilation compilation =
+        Compiler.javac()
+            .withProcessors(new RestHandlerGenerator())
+            .withOptions("-ArestRouter=my.test.routing.Router")
+            .compile(JavaFileObjects.forResource(resource));
+    assertThat(compilation.status()).isEqualTo(Compilation.Status.SUCCESS);
+
+    ClassLoader classLoader = new GeneratedClassLoader(compilation.generatedFiles());
+    Class<?> handlerClass = classLoader.loadClass("my.test.RestRouterRuntimeTest");
+    router =
+        (Handler<RoutingContext>)
+            classLoader
+                .loadClass("my.test.routing.Router")
+                .getConstructor(handlerClass)
+                .newInstance(handlerClass.getConstructor().newInstance());
+    calls = (List<String>) handlerClass.getField("CALLS").get(null);
+  }
+
+  @ParameterizedTest(name = "{0} {1} -> {2}")
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        // literals and trailing slashes
+        "      | /users                 | list",
+        "      | /users/                | list",
+        "      | /users/me              | me",
+        "      | /users/me/             | me",
+        "      | /users/me/settings     | settings",
+        // typed segments
+        "      | /users/42              | byId 42",
+        "      | /users/42/             | byId 42",
+        "      | /flags/true            | flag true",
+        "      | /flags/FALSE           | flag false",
+        "      | /items/12              | item 12",
+        // backtracking from a literal and from a typed edge to a string parameter
+        "      | /users/me/posts        | posts me",
+        "      | /users/42/posts        | posts 42",
+        "      | /files/7/a             | fileA 7",
+        "      | /files/7/b             | fileB 7",
+        // string segments are percent decoded, '+' is not a space in a path
+        "      | /users/j%C3%B6rg/posts | posts jörg",
+        "      | /users/a%2Fb/posts     | posts a/b",
+        "      | /users/a+b/posts       | posts a+b",
+        // no match falls through to ctx.next()
+        "      | /                      | next",
+        "      | /nope                  | next",
+        "      | /users/me/other        | next",
+        "      | /users//posts          | next",
+        "      | /files/x/a             | next",
+        "      | /flags/yes             | next",
+        "      | /items/x               | next",
+        "      | /items/99999999999     | next",
+        // paths below a mount point
+        "/api  | /api/users/42          | byId 42",
+        "/api/ | /api/users/42          | byId 42",
+        "/api  | /api/users             | list",
+        "/api  | /api                   | next",
+        "/api  | /apiusers              | next",
+        "/api  | /other/users/42        | next",
+      })
+  void route(String mountPoint, String path, String expected) {
+    assertThat(handle(mountPoint, path)).isEqualTo(expected);
+  }
+
+  private static String handle(String mountPoint, String path) {
+    boolean[] next = new boolean[1];
+    RoutingContext ctx =
+        (RoutingContext)
+            Proxy.newProxyInstance(
+                RoutingContext.class.getClassLoader(),
+                new Class<?>[] {RoutingContext.class},
+                (proxy, method, args) ->
+                    switch (method.getName()) {
+                      case "normalizedPath" -> path;
+                      case "mountPoint" -> mountPoint;
+                      case "next" -> {
+                        next[0] = true;
+                        yield null;
+                      }
+                      default -> throw new UnsupportedOperationException(method.getName());
+                    });
+
+    calls.clear();
+    router.handle(ctx);
+    return next[0] ? "next" : String.join(", ", calls);
+  }
+
+  /** loads the classes of the compilation, everything else from the test class path */
+  private static final class GeneratedClassLoader extends ClassLoader {
+
+    private final Map<String, JavaFileObject> classes = new HashMap<>();
+
+    private GeneratedClassLoader(List<JavaFileObject> files) {
+      super(RestRouterWriterTest.class.getClassLoader());
+      for (JavaFileObject file : files) {
+        String name = file.toUri().getPath();
+        if (JavaFileObject.Kind.CLASS != file.getKind()) {
+          continue;
+        }
+
+        int start = name.indexOf("CLASS_OUTPUT/") + "CLASS_OUTPUT/".length();
+        String binaryName = name.substring(start, name.length() - ".class".length());
+        classes.put(binaryName.replace('/', '.'), file);
+      }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      JavaFileObject file = classes.get(name);
+      if (null == file) {
+        throw new ClassNotFoundException(name);
+      }
+
+      try (InputStream in = file.openInputStream()) {
+        byte[] bytes = in.readAllBytes();
+        return defineClass(name, bytes, 0, bytes.length);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
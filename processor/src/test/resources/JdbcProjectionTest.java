@@ -0,0 +1,17 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
+import github.benslabbert.vertxdaggercodegen.annotation.projection.JdbcProjection;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@JdbcProjection
+public record JdbcProjectionTest(
+    @Column(name = "id_col") long id,
+    String name,
+    Integer count,
+    boolean active,
+    Double score,
+    UUID uuid,
+    OffsetDateTime created) {}
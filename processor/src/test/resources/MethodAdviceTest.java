@@ -0,0 +1,131 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.Advice;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.Advised;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodAdvice;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.MethodId;
+import io.vertx.core.Future;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Singleton;
+
+@Advised(advisors = {CountingAdvice.class, PlainAdvice.class, ScopedAdvice.class})
+public class MethodAdviceTest {
+
+  MethodAdviceTest() {}
+
+  public void noArgs() {}
+
+  public int intMethod(int in) {
+    return in;
+  }
+
+  public long longMethod(long in) {
+    return in;
+  }
+
+  public char charMethod(char in) {
+    return in;
+  }
+
+  public boolean booleanMethod(boolean in) {
+    return in;
+  }
+
+  public String twoArgs(String in, int i) {
+    return in;
+  }
+
+  public String threeArgs(String in, int i, Object obj) {
+    return in;
+  }
+
+  public List<String> fourArgs(String a, String b, String c, String d) {
+    return List.of(a, b, c, d);
+  }
+
+  public void varargs(int... in) {}
+
+  public void overloaded(String in) {}
+
+  public void overloaded(int in) {}
+
+  public Future<String> future(String in) {
+    return Future.succeededFuture(in);
+  }
+
+  public CompletableFuture<String> completableFuture(String in) {
+    return CompletableFuture.completedFuture(in);
+  }
+
+  public String throwing(String in) throws IOException {
+    throw new IOException(in);
+  }
+}
+
+class CountingAdvice implements MethodAdvice {
+
+  private long count;
+
+  public CountingAdvice() {}
+
+  @Override
+  public void before(MethodId method) {
+    count++;
+  }
+
+  @Override
+  public void before(MethodId method, Object arg0) {
+    count++;
+  }
+
+  @Override
+  public void before(MethodId method, int arg0) {
+    count++;
+  }
+
+  @Override
+  public void after(MethodId method, Object result) {
+    count++;
+  }
+
+  @Override
+  public void before(Class<?> clazz, String methodName, Object... args) {
+    count++;
+  }
+
+  @Override
+  public void after(Class<?> clazz, String methodName, Object result) {
+    count++;
+  }
+
+  @Override
+  public void onError(MethodId method, Throwable throwable) {
+    count++;
+  }
+}
+
+class PlainAdvice implements Advice {
+
+  public PlainAdvice() {}
+
+  @Override
+  public void before(Class<?> clazz, String methodName, Object... args) {}
+
+  @Override
+  public void after(Class<?> clazz, String methodName, Object result) {}
+}
+
+@Singleton
+class ScopedAdvice implements MethodAdvice {
+
+  public ScopedAdvice() {}
+
+  @Override
+  public void before(Class<?> clazz, String methodName, Object... args) {}
+
+  @Override
+  public void after(Class<?> clazz, String methodName, Object result) {}
+}
@@ -0,0 +1,64 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
+import github.benslabbert.vertxdaggercodegen.annotation.projection.ReactiveProjection;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import java.util.List;
+
+@ReactiveProjection
+public final class ReactiveProjectionClassTest {
+
+  @Column(name = "id_col")
+  private final long id;
+
+  private final String name;
+
+  private ReactiveProjectionClassTest(long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  static List<ReactiveProjectionClassTest> mapAll(RowSet<Row> rowSet) {
+    return ReactiveProjectionClassTest_ReactiveRowMapper.INSTANCE.mapAll(rowSet);
+  }
+
+  static ReactiveProjectionClassTest map(Row row, List<String> columns) {
+    var layout = ReactiveProjectionClassTest_ReactiveRowMapper.Layout.of(columns);
+    return ReactiveProjectionClassTest_ReactiveRowMapper.INSTANCE.map(row, layout);
+  }
+
+  public static Builder builder() {
+    return new Builder() {
+      private long id;
+      private String name;
+
+      @Override
+      public Builder id(long id) {
+        this.id = id;
+        return this;
+      }
+
+      @Override
+      public Builder name(String name) {
+        this.name = name;
+        return this;
+      }
+
+      @Override
+      public ReactiveProjectionClassTest build() {
+        return new ReactiveProjectionClassTest(id, name);
+      }
+    };
+  }
+
+  public interface Builder {
+
+    Builder id(long id);
+
+    Builder name(String name);
+
+    ReactiveProjectionClassTest build();
+  }
+}
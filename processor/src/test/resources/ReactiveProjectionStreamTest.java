@@ -0,0 +1,23 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
+import github.benslabbert.vertxdaggercodegen.annotation.projection.ReactiveProjection;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+@ReactiveProjection
+public record ReactiveProjectionStreamTest(@Column(name = "id_col") long id, String name) {
+
+  static ReadStream<ReactiveProjectionStreamTest> mapStream(ReadStream<Row> rows) {
+    return ReactiveProjectionStreamTest_ReactiveRowMapper.INSTANCE.mapStream(rows);
+  }
+
+  static List<ReactiveProjectionStreamTest> collect(RowSet<Row> rowSet) {
+    return StreamSupport.stream(rowSet.spliterator(), false)
+        .collect(ReactiveProjectionStreamTest_ReactiveRowMapper.collector(rowSet.size()));
+  }
+}
@@ -3,10 +3,22 @@ package my.test;
 
 import github.benslabbert.vertxdaggercodegen.annotation.projection.Column;
 import github.benslabbert.vertxdaggercodegen.annotation.projection.ReactiveProjection;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import java.util.List;
 
 @ReactiveProjection
 public record ReactiveProjectionTest(@Column(name = "name") String name, String surname) {
 
+  static List<ReactiveProjectionTest> mapAll(RowSet<Row> rowSet) {
+    return ReactiveProjectionTest_ReactiveRowMapper.INSTANCE.mapAll(rowSet);
+  }
+
+  static ReactiveProjectionTest map(Row row) {
+    var layout = ReactiveProjectionTest_ReactiveRowMapper.Layout.of(row);
+    return ReactiveProjectionTest_ReactiveRowMapper.INSTANCE.map(row, layout);
+  }
+
   public static Builder builder() {
     return new Builder() {
       private String name;
@@ -0,0 +1,13 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.url.RestHandler;
+
+public class RestHandlerLazyTest {
+
+  private static final String PATH =
+      "/some/prefix/{int:param1}/path/{string:param2=abc}/more-path/{ts:param3}?query1={double:query1=1.0}&query2={boolean:query2}&query3={long:query3=4L}";
+
+  @RestHandler(path = PATH, lazy = true)
+  public void handler() {}
+}
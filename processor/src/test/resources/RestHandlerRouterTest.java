@@ -0,0 +1,41 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.url.RestHandler;
+import io.vertx.ext.web.RoutingContext;
+
+public class RestHandlerRouterTest {
+
+  @RestHandler(path = "/users")
+  public void list(RoutingContext ctx) {}
+
+  @RestHandler(path = "/users/{long:id}")
+  public void byId(
+      RoutingContext ctx,
+      RestHandlerRouterTest_ById_ParamParser.RestHandlerRouterTest_ById_Params params) {}
+
+  @RestHandler(
+      path = "/users/{string:name}/posts/{int:post}?draft={boolean:draft=false}",
+      lazy = true)
+  public void post(
+      RoutingContext ctx,
+      RestHandlerRouterTest_Post_ParamParser.RestHandlerRouterTest_Post_Params params) {}
+
+  @RestHandler(path = "/users/me/settings/notifications")
+  public void notifications(RoutingContext ctx) {}
+
+  @RestHandler(path = "/events/{ts:from}/{double:score}/{float:weight}/{boolean:active}")
+  public void events(
+      RoutingContext ctx,
+      RestHandlerRouterTest_Events_ParamParser.RestHandlerRouterTest_Events_Params params) {}
+
+  @RestHandler(path = "/events/{ts_iso:from}/{ts_s:to}?limit={ts_long:limit=0}")
+  public void range(
+      RoutingContext ctx,
+      RestHandlerRouterTest_Range_ParamParser.RestHandlerRouterTest_Range_Params params) {}
+
+  @RestHandler(path = "/search?q={string:q}")
+  public void search(
+      RoutingContext ctx,
+      RestHandlerRouterTest_Search_ParamParser.RestHandlerRouterTest_Search_Params params) {}
+}
@@ -0,0 +1,16 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.url.RestHandler;
+
+public class RestHandlerTimestampTest {
+
+  private static final String PATH =
+      "/range/{ts_iso:from}/{ts_s:to}?at={ts:at=1708267289273}&since={ts_iso:since=2024-02-18T14:41:29Z}&until={ts_s:until=1708267289}&millis={ts_long:millis}";
+
+  @RestHandler(path = PATH)
+  public void handler() {}
+
+  @RestHandler(path = PATH, lazy = true)
+  public void lazy() {}
+}
@@ -0,0 +1,69 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.url.RestHandler;
+import io.vertx.ext.web.RoutingContext;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RestRouterRuntimeTest {
+
+  public static final List<String> CALLS = new ArrayList<>();
+
+  @RestHandler(path = "/users")
+  public void list(RoutingContext ctx) {
+    CALLS.add("list");
+  }
+
+  @RestHandler(path = "/users/me")
+  public void me(RoutingContext ctx) {
+    CALLS.add("me");
+  }
+
+  @RestHandler(path = "/users/me/settings")
+  public void settings(RoutingContext ctx) {
+    CALLS.add("settings");
+  }
+
+  @RestHandler(path = "/users/{long:id}")
+  public void byId(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_ById_ParamParser.RestRouterRuntimeTest_ById_Params params) {
+    CALLS.add("byId " + params.id());
+  }
+
+  @RestHandler(path = "/users/{string:name}/posts")
+  public void posts(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_Posts_ParamParser.RestRouterRuntimeTest_Posts_Params params) {
+    CALLS.add("posts " + params.name());
+  }
+
+  @RestHandler(path = "/files/{int:n}/a")
+  public void fileA(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_FileA_ParamParser.RestRouterRuntimeTest_FileA_Params params) {
+    CALLS.add("fileA " + params.n());
+  }
+
+  @RestHandler(path = "/files/{string:s}/b")
+  public void fileB(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_FileB_ParamParser.RestRouterRuntimeTest_FileB_Params params) {
+    CALLS.add("fileB " + params.s());
+  }
+
+  @RestHandler(path = "/flags/{boolean:on}")
+  public void flag(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_Flag_ParamParser.RestRouterRuntimeTest_Flag_Params params) {
+    CALLS.add("flag " + params.on());
+  }
+
+  @RestHandler(path = "/items/{int:n}")
+  public void item(
+      RoutingContext ctx,
+      RestRouterRuntimeTest_Item_ParamParser.RestRouterRuntimeTest_Item_Params params) {
+    CALLS.add("item " + params.n());
+  }
+}
@@ -0,0 +1,31 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.security.SecuredProxy;
+import io.vertx.core.Future;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+@SecuredProxy
+public interface SecuredProxyDelegateTest {
+
+  @SecuredProxy.RoleBasedPermission(role = "admin", resource = "users")
+  Future<List<String>> list(int limit);
+
+  @SecuredProxy.PermissionBasedPermission(permission = "read", resource = "users")
+  CompletionStage<String> get(String id);
+
+  @SecuredProxy.WildcardBasedPermission(permission = "users:write", resource = "users")
+  <T extends Comparable<T>> void save(T value, String... tags) throws IOException;
+
+  void list();
+
+  @SecuredProxy.SecuredAction(
+      group = "users",
+      role = "admin",
+      permissions = {"delete"})
+  default boolean delete(String id) {
+    return false;
+  }
+}
@@ -0,0 +1,27 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.security.SecuredProxy;
+import io.vertx.core.Future;
+
+@SecuredProxy
+public interface SecuredProxyInheritedTest extends Repository<String> {
+
+  @SecuredProxy.RoleBasedPermission(role = "admin", resource = "users")
+  Future<Void> purge();
+
+  @Override
+  @SecuredProxy.PermissionBasedPermission(permission = "write", resource = "users")
+  Future<Void> save(String value);
+}
+
+interface Repository<T> {
+
+  @SecuredProxy.PermissionBasedPermission(permission = "read", resource = "users")
+  Future<T> find(String id);
+
+  @SecuredProxy.PermissionBasedPermission(permission = "read", resource = "users")
+  Future<Void> save(T value);
+
+  void close();
+}
@@ -17,4 +17,13 @@ public interface SecuredProxyTest {
       role = "role",
       permissions = {"p1", "p2"})
   void testB();
+
+  @SecuredProxy.RoleBasedPermission(role = "role", resource = "resource")
+  void testRole();
+
+  @SecuredProxy.PermissionBasedPermission(permission = "p1", resource = "resource")
+  void testPermission();
+
+  @SecuredProxy.WildcardBasedPermission(permission = "document:read", resource = "resource")
+  void testWildcard();
 }
@@ -0,0 +1,36 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.serviceproxy.GenerateProxies;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+@GenerateProxies(batch = true)
+public interface ServiceProxyBatchTest {
+
+  Future<BatchResponse> get(BatchRequest request);
+
+  Future<BatchResponse> find(BatchRequest request);
+}
+
+record BatchRequest(String value) {
+
+  static BatchRequest fromJson(JsonObject json) {
+    return new BatchRequest(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
+
+record BatchResponse(String value) {
+
+  static BatchResponse fromJson(JsonObject json) {
+    return new BatchResponse(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
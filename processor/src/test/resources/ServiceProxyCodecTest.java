@@ -0,0 +1,59 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.serviceproxy.GenerateProxies;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+
+@GenerateProxies(codec = true)
+public interface ServiceProxyCodecTest {
+
+  Future<CodecResponse> get(CodecRequest request);
+
+  Future<CodecJsonResponse> getJson(CodecRequest request);
+}
+
+record CodecRequest(
+    String value,
+    int i,
+    long l,
+    boolean b,
+    double d,
+    float f,
+    short s,
+    byte by,
+    char c,
+    Integer boxed,
+    Boolean boxedBoolean) {
+
+  static CodecRequest fromJson(JsonObject json) {
+    throw new UnsupportedOperationException();
+  }
+
+  JsonObject toJson() {
+    throw new UnsupportedOperationException();
+  }
+}
+
+record CodecResponse() {
+
+  static CodecResponse fromJson(JsonObject json) {
+    return new CodecResponse();
+  }
+
+  JsonObject toJson() {
+    return new JsonObject();
+  }
+}
+
+record CodecJsonResponse(List<String> values) {
+
+  static CodecJsonResponse fromJson(JsonObject json) {
+    return new CodecJsonResponse(List.of());
+  }
+
+  JsonObject toJson() {
+    return new JsonObject();
+  }
+}
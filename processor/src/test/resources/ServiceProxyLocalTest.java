@@ -0,0 +1,43 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.serviceproxy.GenerateProxies;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+
+@GenerateProxies
+public interface ServiceProxyLocalTest {
+
+  Future<LocalResponse> get(LocalRequest request);
+}
+
+record LocalRequest(List<String> values) {
+
+  static LocalRequest fromJson(JsonObject json) {
+    List<String> values = new ArrayList<>();
+    json.getJsonArray("values").forEach(v -> values.add((String) v));
+    return new LocalRequest(values);
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("values", new JsonArray(new ArrayList<>(values)));
+  }
+}
+
+class LocalResponse {
+
+  String value;
+
+  static LocalResponse fromJson(JsonObject json) {
+    LocalResponse response = new LocalResponse();
+    response.value = json.getString("value");
+    return response;
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
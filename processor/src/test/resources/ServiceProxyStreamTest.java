@@ -0,0 +1,37 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.serviceproxy.GenerateProxies;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+
+@GenerateProxies(batch = true)
+public interface ServiceProxyStreamTest {
+
+  Future<StreamItem> get(StreamRequest request);
+
+  ReadStream<StreamItem> stream(StreamRequest request);
+}
+
+record StreamRequest(String value) {
+
+  static StreamRequest fromJson(JsonObject json) {
+    return new StreamRequest(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
+
+record StreamItem(String value) {
+
+  static StreamItem fromJson(JsonObject json) {
+    return new StreamItem(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
@@ -0,0 +1,34 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.serviceproxy.GenerateProxies;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+@GenerateProxies
+public interface ServiceProxyTest {
+
+  Future<ServiceProxyResponse> get(ServiceProxyRequest request);
+}
+
+record ServiceProxyRequest(String value) {
+
+  static ServiceProxyRequest fromJson(JsonObject json) {
+    return new ServiceProxyRequest(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
+
+record ServiceProxyResponse(String value) {
+
+  static ServiceProxyResponse fromJson(JsonObject json) {
+    return new ServiceProxyResponse(json.getString("value"));
+  }
+
+  JsonObject toJson() {
+    return new JsonObject().put("value", value);
+  }
+}
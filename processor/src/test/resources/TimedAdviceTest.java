@@ -0,0 +1,27 @@
+/* Licensed under Apache-2.0 2024. */
+package my.test;
+
+import github.benslabbert.vertxdaggercodegen.annotation.advice.Advised;
+import github.benslabbert.vertxdaggercodegen.annotation.advice.Timed;
+import io.vertx.core.Future;
+import javax.inject.Inject;
+
+@Advised
+public class TimedAdviceTest {
+
+  @Inject
+  public TimedAdviceTest() {}
+
+  @Timed
+  public int primitive(int in) {
+    return in;
+  }
+
+  @Timed
+  public void noArgs() {}
+
+  @Timed
+  public Future<String> future(String in) {
+    return Future.succeededFuture(in);
+  }
+}